@@ -0,0 +1,112 @@
+package com.example.memorymanager;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary allocation trace. A file starts with the magic "MTRC" and a version, followed by
+// one big-endian record per event: an opcode byte, then
+//   BLOCK  start:int size:int   adds free memory to the layout
+//   ALLOC  id:int size:int      requests size units for job id
+//   FREE   id:int               releases job id
+// Reading maps the file window by window, so traces larger than memory stream through unchanged.
+public final class AllocationTrace {
+    static final int MAGIC = 0x4D545243;
+    static final int VERSION = 1;
+    static final byte BLOCK = 0;
+    static final byte ALLOC = 1;
+    static final byte FREE = 2;
+    private static final int MAX_RECORD = 9;
+    private static final long WINDOW = 1L << 30;
+
+    public interface Visitor {
+        void block(int start, int size);
+
+        void alloc(int id, int size);
+
+        void free(int id);
+    }
+
+    private AllocationTrace() {
+    }
+
+    // Streams every event of the trace to the visitor and returns the number of events
+    public static long read(Path path, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(length, WINDOW));
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not an allocation trace");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+            long events = 0;
+            long base = 0;
+            while (true) {
+                // Remap once a record might straddle the end of the window
+                if (buffer.remaining() < MAX_RECORD && base + buffer.limit() < length) {
+                    base += buffer.position();
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(length - base, WINDOW));
+                }
+                if (!buffer.hasRemaining()) {
+                    return events;
+                }
+                byte opcode = buffer.get();
+                switch (opcode) {
+                    case BLOCK:
+                        visitor.block(buffer.getInt(), buffer.getInt());
+                        break;
+                    case ALLOC:
+                        visitor.alloc(buffer.getInt(), buffer.getInt());
+                        break;
+                    case FREE:
+                        visitor.free(buffer.getInt());
+                        break;
+                    default:
+                        throw new IOException("Bad opcode " + opcode + " at offset " + (base + buffer.position() - 1));
+                }
+                events++;
+            }
+        }
+    }
+
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+
+        public Writer(Path path) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public void block(int start, int size) throws IOException {
+            out.writeByte(BLOCK);
+            out.writeInt(start);
+            out.writeInt(size);
+        }
+
+        public void alloc(int id, int size) throws IOException {
+            out.writeByte(ALLOC);
+            out.writeInt(id);
+            out.writeInt(size);
+        }
+
+        public void free(int id) throws IOException {
+            out.writeByte(FREE);
+            out.writeInt(id);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
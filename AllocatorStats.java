@@ -0,0 +1,94 @@
+package com.example.memorymanager;
+
+import java.util.Arrays;
+
+// Per-strategy counters and log2 histograms for MemoryManager.allocate. Recording only increments
+// preallocated long arrays, so it stays on in every run.
+public class AllocatorStats {
+    static final int BUCKETS = 64; // Bucket b holds values in [2^(b-1), 2^b), bucket 0 holds zero
+
+    private final int strategies = FitStrategy.values().length;
+    private final long[] calls = new long[strategies];
+    private final long[] failures = new long[strategies];
+    private final long[] examined = new long[strategies];
+    private final long[] nanos = new long[strategies];
+    private final long[][] examinedHistogram = new long[strategies][BUCKETS];
+    private final long[][] latencyHistogram = new long[strategies][BUCKETS];
+
+    void record(FitStrategy strategy, long blocksExamined, long elapsedNanos, boolean placed) {
+        int s = strategy.ordinal();
+        calls[s]++;
+        if (!placed) {
+            failures[s]++;
+        }
+        examined[s] += blocksExamined;
+        nanos[s] += elapsedNanos;
+        examinedHistogram[s][bucket(blocksExamined)]++;
+        latencyHistogram[s][bucket(elapsedNanos)]++;
+    }
+
+    public long calls(FitStrategy strategy) {
+        return calls[strategy.ordinal()];
+    }
+
+    public long failures(FitStrategy strategy) {
+        return failures[strategy.ordinal()];
+    }
+
+    public long totalFailures() {
+        long total = 0;
+        for (long failure : failures) {
+            total += failure;
+        }
+        return total;
+    }
+
+    public double meanExamined(FitStrategy strategy) {
+        int s = strategy.ordinal();
+        return calls[s] == 0 ? 0 : (double) examined[s] / calls[s];
+    }
+
+    public double meanLatencyNanos(FitStrategy strategy) {
+        int s = strategy.ordinal();
+        return calls[s] == 0 ? 0 : (double) nanos[s] / calls[s];
+    }
+
+    // Upper bound of the histogram bucket holding the given quantile (0..1)
+    public long examinedQuantile(FitStrategy strategy, double quantile) {
+        return quantile(examinedHistogram[strategy.ordinal()], calls[strategy.ordinal()], quantile);
+    }
+
+    public long latencyQuantileNanos(FitStrategy strategy, double quantile) {
+        return quantile(latencyHistogram[strategy.ordinal()], calls[strategy.ordinal()], quantile);
+    }
+
+    public void reset() {
+        for (int s = 0; s < strategies; s++) {
+            calls[s] = 0;
+            failures[s] = 0;
+            examined[s] = 0;
+            nanos[s] = 0;
+            Arrays.fill(examinedHistogram[s], 0);
+            Arrays.fill(latencyHistogram[s], 0);
+        }
+    }
+
+    private static int bucket(long value) {
+        return 64 - Long.numberOfLeadingZeros(Math.max(value, 0));
+    }
+
+    private static long quantile(long[] histogram, long count, double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram[b];
+            if (seen >= Math.max(target, 1)) {
+                return b == 0 ? 0 : (1L << b) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorymanager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of MemoryManager.allocateBatch: the jobs it placed, largest first, and those it could not
+public class BatchResult {
+    private final List<Job> placed = new ArrayList<>();
+    private final List<Job> unplaced = new ArrayList<>();
+
+    BatchResult() {
+    }
+
+    public List<Job> placed() {
+        return placed;
+    }
+
+    public List<Job> unplaced() {
+        return unplaced;
+    }
+}
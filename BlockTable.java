@@ -0,0 +1,134 @@
+package com.example.memorymanager;
+
+import java.util.Arrays;
+
+// Struct-of-arrays storage for memory blocks. A block is an int handle indexing the columns below;
+// blocks are chained in list order through prev/next, so inserting after a block is constant time.
+// Handles of removed blocks are recycled through the next column.
+class BlockTable {
+    static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    int[] start = new int[INITIAL_CAPACITY];
+    int[] size = new int[INITIAL_CAPACITY];
+    boolean[] free = new boolean[INITIAL_CAPACITY];
+    byte[] buddyOrder = new byte[INITIAL_CAPACITY]; // Order of the chunk while owned by BuddyAllocator, else -1
+    byte[] slabClass = new byte[INITIAL_CAPACITY];  // Size class of the object while owned by SlabAllocator, else -1
+    int[] prev = new int[INITIAL_CAPACITY];
+    int[] next = new int[INITIAL_CAPACITY];
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int count;
+    private int used;             // Handles below this have been handed out at least once
+    private int recycled = NIL;   // Head of the chain of removed handles
+
+    // Creates an unlinked block and returns its handle
+    int create(int start, int size, boolean isFree) {
+        int block;
+        if (recycled != NIL) {
+            block = recycled;
+            recycled = next[block];
+        } else {
+            if (used == this.start.length) {
+                grow(used * 2);
+            }
+            block = used++;
+        }
+        this.start[block] = start;
+        this.size[block] = size;
+        free[block] = isFree;
+        buddyOrder[block] = -1;
+        slabClass[block] = -1;
+        prev[block] = NIL;
+        next[block] = NIL;
+        return block;
+    }
+
+    // Links block after anchor, or at the front when anchor is NIL
+    void linkAfter(int anchor, int block) {
+        prev[block] = anchor;
+        next[block] = anchor == NIL ? head : next[anchor];
+        if (next[block] != NIL) {
+            prev[next[block]] = block;
+        } else {
+            tail = block;
+        }
+        if (anchor != NIL) {
+            next[anchor] = block;
+        } else {
+            head = block;
+        }
+        count++;
+    }
+
+    // Unlinks the block and recycles its handle
+    void remove(int block) {
+        unlink(block);
+        next[block] = recycled;
+        recycled = block;
+    }
+
+    // Takes the block out of list order but keeps its handle, so it can be linked elsewhere
+    void unlink(int block) {
+        if (prev[block] != NIL) {
+            next[prev[block]] = next[block];
+        } else {
+            head = next[block];
+        }
+        if (next[block] != NIL) {
+            prev[next[block]] = prev[block];
+        } else {
+            tail = prev[block];
+        }
+        count--;
+        prev[block] = NIL;
+        next[block] = NIL;
+    }
+
+    void clear() {
+        head = NIL;
+        tail = NIL;
+        count = 0;
+        used = 0;
+        recycled = NIL;
+    }
+
+    // Free and open to the split-based strategies
+    boolean isAvailable(int block) {
+        return free[block] && buddyOrder[block] < 0 && slabClass[block] < 0;
+    }
+
+    int first() {
+        return head;
+    }
+
+    int last() {
+        return tail;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int capacity() {
+        return start.length;
+    }
+
+    // Makes room for at least capacity handles at once, for callers that know how many blocks are coming
+    void ensureCapacity(int capacity) {
+        if (capacity > start.length) {
+            grow(capacity);
+        }
+    }
+
+    private void grow(int capacity) {
+        start = Arrays.copyOf(start, capacity);
+        size = Arrays.copyOf(size, capacity);
+        free = Arrays.copyOf(free, capacity);
+        buddyOrder = Arrays.copyOf(buddyOrder, capacity);
+        slabClass = Arrays.copyOf(slabClass, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.memorymanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Power-of-two buddy allocator over blocks handed over by a MemoryManager. Free chunks of each order
+// sit in a per-order doubly linked free list threaded through columns indexed by block handle, oldest
+// first. A chunk's buddy, if it exists as a block, is its neighbour in the address-ordered block list,
+// so finding, unlinking and merging it is constant time without any lookup structure, and a bit mask
+// of non-empty orders finds the smallest usable order without scanning.
+class BuddyAllocator {
+    static final int MAX_ORDER = 30;
+
+    private final MemoryManager manager;
+    private final BlockTable blocks;
+    private final int[] heads = new int[MAX_ORDER + 1];
+    private final int[] tails = new int[MAX_ORDER + 1];
+    private int[] prevFree = new int[0];
+    private int[] nextFree = new int[0];
+    private int nonEmptyOrders; // Bit k is set when the order k free list has a chunk
+
+    BuddyAllocator(MemoryManager manager) {
+        this.manager = manager;
+        this.blocks = manager.blocks;
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+    }
+
+    static int orderFor(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    // Carves a free block into the largest aligned power-of-two chunks it contains
+    void adopt(int block) {
+        int end = blocks.start[block] + blocks.size[block];
+        int order = largestOrder(blocks.start[block], end);
+        manager.reserve(block, order, -1);
+        while (true) {
+            manager.resize(block, 1 << order);
+            push(block);
+            int next = blocks.start[block] + blocks.size[block];
+            if (next >= end) {
+                break;
+            }
+            order = largestOrder(next, end);
+            int chunk = blocks.create(next, 1 << order, true);
+            blocks.buddyOrder[chunk] = (byte) order;
+            manager.insertAfter(block, chunk);
+            block = chunk;
+        }
+    }
+
+    int allocate(int size) {
+        int order = orderFor(size);
+        if (order > MAX_ORDER) {
+            return NIL;
+        }
+        int usable = nonEmptyOrders & (-1 << order);
+        if (usable == 0) {
+            return NIL;
+        }
+        int from = Integer.numberOfTrailingZeros(usable);
+        int block = take(from);
+        while (from > order) {
+            from--;
+            manager.resize(block, 1 << from);
+            blocks.buddyOrder[block] = (byte) from;
+            int half = blocks.create(blocks.start[block] + blocks.size[block], blocks.size[block], true);
+            blocks.buddyOrder[half] = (byte) from;
+            manager.insertAfter(block, half);
+            push(half);
+        }
+        blocks.free[block] = false;
+        return block;
+    }
+
+    int release(int block) {
+        blocks.free[block] = true;
+        int order = blocks.buddyOrder[block];
+        while (order < MAX_ORDER) {
+            int buddy = buddyOf(block, order);
+            if (buddy == NIL) {
+                break;
+            }
+            unlink(buddy, order);
+            int upper = buddy;
+            if (blocks.start[upper] < blocks.start[block]) {
+                upper = block;
+                block = buddy;
+            }
+            manager.removeBlock(upper);
+            order++;
+            manager.resize(block, 1 << order);
+            blocks.buddyOrder[block] = (byte) order;
+        }
+        push(block);
+        return block;
+    }
+
+    // Free chunks in the order allocate would consider them, for MemorySnapshot
+    List<Integer> freeChunks() {
+        List<Integer> chunks = new ArrayList<>();
+        for (int order = 0; order <= MAX_ORDER; order++) {
+            for (int block = heads[order]; block != NIL; block = nextFree[block]) {
+                chunks.add(block);
+            }
+        }
+        return chunks;
+    }
+
+    // Puts a free chunk of a restored snapshot back on its free list
+    void restore(int block) {
+        push(block);
+    }
+
+    // The free chunk of the given order at start ^ 2^order, or NIL. Blocks are in address order, so
+    // a buddy above is the next block and one below the previous.
+    private int buddyOf(int block, int order) {
+        int address = blocks.start[block] ^ (1 << order);
+        int buddy = address > blocks.start[block] ? blocks.next[block] : blocks.prev[block];
+        if (buddy == NIL || blocks.start[buddy] != address || !blocks.free[buddy] || blocks.buddyOrder[buddy] != order) {
+            return NIL;
+        }
+        return buddy;
+    }
+
+    private void push(int block) {
+        if (block >= nextFree.length) {
+            prevFree = Arrays.copyOf(prevFree, blocks.capacity());
+            nextFree = Arrays.copyOf(nextFree, blocks.capacity());
+        }
+        int order = blocks.buddyOrder[block];
+        prevFree[block] = tails[order];
+        nextFree[block] = NIL;
+        if (tails[order] != NIL) {
+            nextFree[tails[order]] = block;
+        } else {
+            heads[order] = block;
+        }
+        tails[order] = block;
+        nonEmptyOrders |= 1 << order;
+    }
+
+    private int take(int order) {
+        int block = heads[order];
+        unlink(block, order);
+        return block;
+    }
+
+    private void unlink(int block, int order) {
+        if (prevFree[block] != NIL) {
+            nextFree[prevFree[block]] = nextFree[block];
+        } else {
+            heads[order] = nextFree[block];
+        }
+        if (nextFree[block] != NIL) {
+            prevFree[nextFree[block]] = prevFree[block];
+        } else {
+            tails[order] = prevFree[block];
+        }
+        if (heads[order] == NIL) {
+            nonEmptyOrders &= ~(1 << order);
+        }
+    }
+
+    private static int largestOrder(int start, int end) {
+        int order = start == 0 ? MAX_ORDER : Math.min(Integer.numberOfTrailingZeros(start), MAX_ORDER);
+        while ((1L << order) > end - start) {
+            order--;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.memorymanager;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Incremental compaction for a MemoryManager. Each step walks a bounded number of blocks from where
+// the previous step stopped; whenever a free block is directly followed by an allocated block in
+// contiguous memory, the allocated block slides down and the free space moves up, merging with any
+// free block after it. Blocks owned by the buddy or slab allocators are never moved. Steps can be
+// interleaved freely with allocations, since the position is kept as a list index, not a handle.
+public class Compactor {
+    static final int DEFAULT_STEP = 64;
+
+    private final MemoryManager manager;
+    private OffHeapArena arena;
+    private int position;
+    private long unitsMoved;
+    private long blocksMoved;
+
+    public Compactor(MemoryManager manager) {
+        this.manager = manager;
+    }
+
+    // Data of moved blocks is copied inside the arena; slices handed out earlier must be fetched again
+    public void setArena(OffHeapArena arena) {
+        this.arena = arena;
+    }
+
+    // Visits at most maxBlocks blocks; returns true once the pass has reached the end of memory
+    public boolean step(int maxBlocks) {
+        BlockTable blocks = manager.blocks;
+        if (position >= blocks.count()) {
+            position = 0;
+            return true;
+        }
+        int block = manager.blockAt(position);
+        for (int visited = 0; visited < maxBlocks && block != NIL; visited++) {
+            int next = blocks.next[block];
+            if (blocks.isAvailable(block) && next != NIL && isMovable(blocks, next)
+                    && blocks.start[block] + blocks.size[block] == blocks.start[next]) {
+                if (arena != null) {
+                    arena.moveDown(blocks.start[next], blocks.start[block], blocks.size[next]);
+                }
+                unitsMoved += blocks.size[next];
+                blocksMoved++;
+                manager.slideDown(block, next);
+                block = manager.release(block); // Merge with the free block that may follow
+            } else {
+                block = next;
+            }
+            position++;
+        }
+        if (block == NIL) {
+            position = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // Runs steps until a whole pass is done
+    public void compact() {
+        while (!step(DEFAULT_STEP)) {
+            // Keep stepping
+        }
+    }
+
+    public long unitsMoved() {
+        return unitsMoved;
+    }
+
+    public long bytesMoved() {
+        return arena == null ? unitsMoved : unitsMoved * arena.bytesPerUnit();
+    }
+
+    public long blocksMoved() {
+        return blocksMoved;
+    }
+
+    void reset() {
+        position = 0;
+    }
+
+    private static boolean isMovable(BlockTable blocks, int block) {
+        return !blocks.free[block] && blocks.buddyOrder[block] < 0 && blocks.slabClass[block] < 0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.memorymanager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Thread-safe allocator over one address range. Small requests are rounded up to size classes
+// (as in SlabAllocator) and served from per-stripe lock-free stacks; each thread sticks to one
+// stripe, so threads rarely touch the same stack. An empty stack is refilled with a batch cut from
+// the shared MemoryManager under its lock, and only when that is exhausted does a thread steal from
+// other stripes. Large requests go straight to the shared pool.
+public class ConcurrentAllocator {
+    static final int GRANULE = SlabAllocator.GRANULE;
+    static final int CLASS_COUNT = SlabAllocator.CLASS_COUNT;
+    static final int BATCH = 16; // Objects cut from the shared pool per refill
+
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final MemoryManager shared;
+    private final Map<Integer, Job> largeJobs = new HashMap<>(); // Guarded by shared
+    private final AtomicIntegerArray nextFree; // Stack links, indexed by granule
+    private final byte[] chunkClass;           // Size class of the chunk starting at each granule, 0 for large
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final ThreadLocal<Stripe> localStripe;
+
+    public ConcurrentAllocator(int capacity, int stripeCount) {
+        capacity -= capacity % GRANULE; // Every chunk starts on a granule, so its class can be looked up by address
+        this.capacity = capacity;
+        this.shared = new MemoryManager(capacity);
+        shared.addBlock(0, capacity);
+        this.nextFree = new AtomicIntegerArray(capacity / GRANULE + 1);
+        this.chunkClass = new byte[capacity / GRANULE + 1];
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.localStripe = ThreadLocal.withInitial(
+                () -> stripes[Math.floorMod(nextStripe.getAndIncrement(), stripes.length)]);
+    }
+
+    public ConcurrentAllocator(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Returns the start address of size units, or -1 when nothing fits
+    public int allocate(int size) {
+        if (!SlabAllocator.isSmall(size)) {
+            return allocateLarge(size);
+        }
+        int sizeClass = SlabAllocator.classFor(size);
+        Stripe stripe = localStripe.get();
+        int address = stripe.pop(sizeClass);
+        if (address < 0 && refill(stripe, sizeClass)) {
+            address = stripe.pop(sizeClass);
+        }
+        for (int i = 0; address < 0 && i < stripes.length; i++) {
+            address = stripes[i].pop(sizeClass); // Shared pool is dry; steal from the other stripes
+        }
+        return address;
+    }
+
+    public void free(int address) {
+        int sizeClass = chunkClass[address / GRANULE];
+        if (sizeClass == 0) {
+            synchronized (shared) {
+                shared.free(largeJobs.remove(address));
+            }
+        } else {
+            localStripe.get().push(sizeClass, address);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int allocateLarge(int size) {
+        synchronized (shared) {
+            Job job = new Job(-1, (size + GRANULE - 1) / GRANULE * GRANULE);
+            shared.bestFit(job);
+            if (!job.isAllocated) {
+                return -1;
+            }
+            int address = shared.blocks.start[job.memoryBlock];
+            largeJobs.put(address, job);
+            return address;
+        }
+    }
+
+    // Cuts a batch of objects from the shared pool onto the stripe's stack
+    private boolean refill(Stripe stripe, int sizeClass) {
+        int objectSize = sizeClass * GRANULE;
+        int start;
+        int count;
+        synchronized (shared) {
+            Job slab = new Job(-1, objectSize * BATCH);
+            shared.bestFit(slab);
+            if (!slab.isAllocated) {
+                slab = new Job(-1, objectSize);
+                shared.bestFit(slab);
+                if (!slab.isAllocated) {
+                    return false;
+                }
+            }
+            start = shared.blocks.start[slab.memoryBlock];
+            count = slab.size / objectSize;
+            for (int i = 0; i < count; i++) {
+                chunkClass[(start + i * objectSize) / GRANULE] = (byte) sizeClass;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            stripe.push(sizeClass, start + i * objectSize);
+        }
+        return true;
+    }
+
+    // Treiber stacks, one per size class. The head packs a version tag above the granule index so a
+    // pop racing with a pop and re-push of the same chunk (ABA) fails its compare-and-set.
+    private final class Stripe {
+        private static final long EMPTY = 0xFFFFFFFFL;
+
+        private final AtomicLong[] heads = new AtomicLong[CLASS_COUNT + 1];
+
+        Stripe() {
+            for (int i = 0; i < heads.length; i++) {
+                heads[i] = new AtomicLong(EMPTY);
+            }
+        }
+
+        void push(int sizeClass, int address) {
+            int granule = address / GRANULE;
+            AtomicLong head = heads[sizeClass];
+            while (true) {
+                long current = head.get();
+                nextFree.set(granule, (int) current);
+                long updated = ((current >>> 32) + 1) << 32 | granule;
+                if (head.compareAndSet(current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        int pop(int sizeClass) {
+            AtomicLong head = heads[sizeClass];
+            while (true) {
+                long current = head.get();
+                int granule = (int) current;
+                if (granule == (int) EMPTY) {
+                    return -1;
+                }
+                long updated = ((current >>> 32) + 1) << 32 | (nextFree.get(granule) & EMPTY);
+                if (head.compareAndSet(current, updated)) {
+                    return granule * GRANULE;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.memorymanager;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hammers a ConcurrentAllocator from 1..N threads with random allocate/free mixes. Every unit
+// handed out is claimed in an ownership map with compare-and-set, so a block given to two threads
+// at once is caught immediately. Prints throughput per thread count and exits non-zero on failure.
+public class ConcurrentAllocatorStress {
+    private static final int CAPACITY = 1 << 24;
+    private static final int OPERATIONS_PER_THREAD = 2_000_000;
+    private static final int LIVE_PER_THREAD = 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        boolean ok = true;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ok &= run(threads);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(int threadCount) throws InterruptedException {
+        ConcurrentAllocator allocator = new ConcurrentAllocator(CAPACITY, threadCount);
+        AtomicIntegerArray owner = new AtomicIntegerArray(CAPACITY);
+        AtomicLong failures = new AtomicLong();
+        AtomicLong exhausted = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int id = t + 1;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                int[] addresses = new int[LIVE_PER_THREAD];
+                int[] sizes = new int[LIVE_PER_THREAD];
+                java.util.Arrays.fill(addresses, -1);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int slot = random.nextInt(LIVE_PER_THREAD);
+                    if (addresses[slot] >= 0) {
+                        release(owner, id, addresses[slot], sizes[slot], failures);
+                        allocator.free(addresses[slot]);
+                        addresses[slot] = -1;
+                    } else {
+                        int size = random.nextInt(20) == 0 ? 65 + random.nextInt(500) : 1 + random.nextInt(64);
+                        int address = allocator.allocate(size);
+                        if (address < 0) {
+                            exhausted.incrementAndGet();
+                            continue;
+                        }
+                        claim(owner, id, address, size, failures);
+                        addresses[slot] = address;
+                        sizes[slot] = size;
+                    }
+                }
+                for (int slot = 0; slot < LIVE_PER_THREAD; slot++) {
+                    if (addresses[slot] >= 0) {
+                        release(owner, id, addresses[slot], sizes[slot], failures);
+                        allocator.free(addresses[slot]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        double opsPerSecond = (double) threadCount * OPERATIONS_PER_THREAD / seconds;
+        System.out.printf("%2d threads: %,.0f ops/s, %d failed allocations, %d double hand-outs%n",
+                threadCount, opsPerSecond, exhausted.get(), failures.get());
+        return failures.get() == 0;
+    }
+
+    private static void claim(AtomicIntegerArray owner, int id, int address, int size, AtomicLong failures) {
+        for (int unit = address; unit < address + size; unit++) {
+            if (!owner.compareAndSet(unit, 0, id)) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private static void release(AtomicIntegerArray owner, int id, int address, int size, AtomicLong failures) {
+        for (int unit = address; unit < address + size; unit++) {
+            if (!owner.compareAndSet(unit, id, 0)) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+}
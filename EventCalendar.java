@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+// Min-heap of events packed into longs: time in the high 32 bits, then the event type, then the job
+// index or dispatch number. Events at the same time therefore come out completions first, then
+// arrivals, then quantum expiries, then timers, and by target within a type, which makes every run
+// deterministic.
+class EventCalendar {
+    static final int COMPLETION = 0;
+    static final int ARRIVAL = 1;
+    static final int EXPIRY = 2;
+    static final int TIMER = 3;
+    static final int TARGET_MASK = (1 << 30) - 1;
+    private static final int TARGET_BITS = 30;
+
+    private long[] heap = new long[16];
+    private int size;
+
+    void add(int time, int type, int target) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long event = (long) time << 32 | (long) type << TARGET_BITS | target;
+        int i = size++;
+        while (i > 0 && heap[(i - 1) / 2] > event) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = event;
+    }
+
+    long poll() {
+        long first = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return first;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Time of the earliest event; only valid while the calendar is not empty
+    int nextTime() {
+        return time(heap[0]);
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    static int time(long event) {
+        return (int) (event >>> 32);
+    }
+
+    static int type(long event) {
+        return (int) (event >>> TARGET_BITS) & 3;
+    }
+
+    static int target(long event) {
+        return (int) event & TARGET_MASK;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorymanager;
+
+enum FitStrategy {
+    FIRST_FIT("First Fit"),
+    NEXT_FIT("Next Fit"),
+    BEST_FIT("Best Fit"),
+    WORST_FIT("Worst Fit"),
+    BUDDY("Buddy System"),
+    SEGREGATED_FIT("Segregated Fit");
+
+    final String label;
+
+    FitStrategy(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
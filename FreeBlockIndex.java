@@ -0,0 +1,463 @@
+package com.example.memorymanager;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Keeps the blocks of a BlockTable in two treaps so that every fit strategy runs in O(log n):
+// one in list order, augmented with subtree counts and the largest free size (first/next fit),
+// and one over the free blocks ordered by size then list position (best/worst fit).
+// Both are stored as primitive columns indexed by block handle, alongside the table.
+class FreeBlockIndex {
+    private static final long SPACING = 1L << 32;   // Label gap between appended blocks
+    private static final long LOCAL_STEP = 1L << 16; // Largest label step taken when inserting after a block
+    private static final int NO_FREE = -1;
+
+    private final BlockTable blocks;
+    private final Random random = new Random();
+    private long[] order = new long[0]; // List-order label
+    private int[] priority = new int[0];
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] count = new int[0];
+    private int[] maxFree = new int[0];
+    private long[] freeUnits = new long[0]; // Available units in the subtree
+    private long[] units = new long[0];     // All units in the subtree
+    private int[] sizeLeft = new int[0];
+    private int[] sizeRight = new int[0];
+    private int root = NIL;
+    private int sizeRoot = NIL;
+    long examined; // Tree nodes visited by fit lookups, for AllocatorStats
+
+    FreeBlockIndex(BlockTable blocks) {
+        this.blocks = blocks;
+    }
+
+    // Indexes a block that has just been linked into the table
+    public void insert(int block) {
+        if (order.length < blocks.capacity()) {
+            grow(blocks.capacity());
+        }
+        int before = blocks.prev[block];
+        int after = blocks.next[block];
+        if (before == NIL) {
+            order[block] = after == NIL ? 0 : order[after] - SPACING;
+        } else if (after == NIL) {
+            order[block] = order[before] + SPACING;
+        } else {
+            if (order[after] - order[before] < 2) {
+                relabel(before, after);
+            }
+            order[block] = order[before] + Math.min((order[after] - order[before]) / 2, LOCAL_STEP);
+        }
+        priority[block] = random.nextInt();
+        left[block] = NIL;
+        right[block] = NIL;
+        sizeLeft[block] = NIL;
+        sizeRight[block] = NIL;
+        if (blocks.isAvailable(block)) {
+            sizeRoot = sizeInsert(sizeRoot, block);
+        }
+        root = insert(root, block);
+    }
+
+    // Indexes every block of a table that was filled without insert. Labels are spread evenly and
+    // both treaps are built as Cartesian trees from their in-order sequences, so apart from sorting
+    // the free blocks by size this is linear.
+    public void build() {
+        if (order.length < blocks.capacity()) {
+            grow(blocks.capacity());
+        }
+        int[] byOrder = new int[blocks.count()];
+        int available = 0;
+        int i = 0;
+        for (int block = blocks.first(); block != NIL; block = blocks.next[block], i++) {
+            byOrder[i] = block;
+            order[block] = i * SPACING;
+            priority[block] = random.nextInt();
+            left[block] = NIL;
+            right[block] = NIL;
+            sizeLeft[block] = NIL;
+            sizeRight[block] = NIL;
+            if (blocks.isAvailable(block)) {
+                available++;
+            }
+        }
+        root = cartesian(byOrder, left, right);
+        pullAll(root);
+
+        long[] sizeKeys = new long[available];
+        int k = 0;
+        for (i = 0; i < byOrder.length; i++) {
+            if (blocks.isAvailable(byOrder[i])) {
+                sizeKeys[k++] = (long) blocks.size[byOrder[i]] << 32 | i;
+            }
+        }
+        Arrays.sort(sizeKeys);
+        int[] bySize = new int[available];
+        for (k = 0; k < available; k++) {
+            bySize[k] = byOrder[(int) sizeKeys[k]];
+        }
+        sizeRoot = cartesian(bySize, sizeLeft, sizeRight);
+    }
+
+    public void update(int block, int size, boolean isFree) {
+        detach(block);
+        blocks.size[block] = size;
+        blocks.free[block] = isFree;
+        attach(block);
+    }
+
+    // Callers changing a block's size or availability do so between detach and attach
+    public void detach(int block) {
+        if (blocks.isAvailable(block)) {
+            sizeRoot = sizeDelete(sizeRoot, block);
+        }
+    }
+
+    public void attach(int block) {
+        if (blocks.isAvailable(block)) {
+            sizeRoot = sizeInsert(sizeRoot, block);
+        }
+        refresh(root, block);
+    }
+
+    // Drops a block from the index; call before removing it from the table
+    public void remove(int block) {
+        detach(block);
+        root = delete(root, block);
+    }
+
+    public void clear() {
+        root = NIL;
+        sizeRoot = NIL;
+    }
+
+    public int largestFree() {
+        return maxFree(root);
+    }
+
+    public long freeUnits() {
+        return freeUnits(root);
+    }
+
+    public int firstFit(int size) {
+        return firstFrom(root, Long.MIN_VALUE, size);
+    }
+
+    // First fitting block at or after list position fromIndex, wrapping around to the front
+    public int nextFit(int fromIndex, int size) {
+        int block = firstFrom(root, order[get(fromIndex)], size);
+        return block != NIL ? block : firstFrom(root, Long.MIN_VALUE, size);
+    }
+
+    public int bestFit(int size) {
+        return sizeCeiling(size);
+    }
+
+    public int worstFit(int size) {
+        if (sizeRoot == NIL) {
+            return NIL;
+        }
+        int largest = sizeRoot;
+        while (sizeRight[largest] != NIL) {
+            largest = sizeRight[largest];
+            examined++;
+        }
+        // Earliest block among those sharing the largest size
+        return blocks.size[largest] < size ? NIL : sizeCeiling(blocks.size[largest]);
+    }
+
+    public int rank(int block) {
+        int rank = 0;
+        int node = root;
+        while (node != block) {
+            if (order[block] < order[node]) {
+                node = left[node];
+            } else {
+                rank += count(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + count(left[node]);
+    }
+
+    // Units held by the blocks before list position index; only available ones when onlyFree is set
+    public long unitsBefore(int index, boolean onlyFree) {
+        long total = 0;
+        int node = root;
+        while (node != NIL) {
+            int leftCount = count(left[node]);
+            if (index <= leftCount) {
+                node = left[node];
+            } else {
+                total += onlyFree ? freeUnits(left[node]) : units(left[node]);
+                total += onlyFree ? (blocks.isAvailable(node) ? blocks.size[node] : 0) : blocks.size[node];
+                index -= leftCount + 1;
+                node = right[node];
+            }
+        }
+        return total;
+    }
+
+    public int get(int index) {
+        int node = root;
+        while (node != NIL) {
+            int leftCount = count(left[node]);
+            if (index < leftCount) {
+                node = left[node];
+            } else if (index == leftCount) {
+                return node;
+            } else {
+                index -= leftCount + 1;
+                node = right[node];
+            }
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    // Spread out the labels from first onwards so a new block fits after anchor; relative order is
+    // kept, so neither treap needs rebuilding
+    private void relabel(int anchor, int first) {
+        int last = first;
+        int n = 1;
+        while (blocks.next[last] != NIL && (order[blocks.next[last]] - order[anchor]) / (n + 2) < LOCAL_STEP) {
+            last = blocks.next[last];
+            n++;
+        }
+        long step = blocks.next[last] == NIL ? SPACING : (order[blocks.next[last]] - order[anchor]) / (n + 2);
+        int block = first;
+        for (int i = 1; i <= n; i++) {
+            order[block] = order[anchor] + (i + 1) * step;
+            block = blocks.next[block];
+        }
+    }
+
+    // Links nodes into a tree that is heap-ordered by priority and has them as its in-order sequence
+    private int cartesian(int[] nodes, int[] leftOf, int[] rightOf) {
+        int[] spine = new int[nodes.length]; // Right spine of the tree built so far
+        int top = 0;
+        for (int node : nodes) {
+            int child = NIL;
+            while (top > 0 && priority[spine[top - 1]] < priority[node]) {
+                child = spine[--top];
+            }
+            leftOf[node] = child;
+            if (top > 0) {
+                rightOf[spine[top - 1]] = node;
+            }
+            spine[top++] = node;
+        }
+        return top == 0 ? NIL : spine[0];
+    }
+
+    private void pullAll(int node) {
+        if (node != NIL) {
+            pullAll(left[node]);
+            pullAll(right[node]);
+            pull(node);
+        }
+    }
+
+    private int insert(int node, int block) {
+        if (node == NIL) {
+            return pull(block);
+        }
+        if (order[block] < order[node]) {
+            left[node] = insert(left[node], block);
+            if (priority[left[node]] > priority[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            right[node] = insert(right[node], block);
+            if (priority[right[node]] > priority[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        return pull(node);
+    }
+
+    private int delete(int node, int block) {
+        if (node == block) {
+            return merge(left[node], right[node]);
+        }
+        if (order[block] < order[node]) {
+            left[node] = delete(left[node], block);
+        } else {
+            right[node] = delete(right[node], block);
+        }
+        return pull(node);
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            return pull(a);
+        }
+        left[b] = merge(a, left[b]);
+        return pull(b);
+    }
+
+    private void refresh(int node, int block) {
+        if (order[block] < order[node]) {
+            refresh(left[node], block);
+        } else if (order[block] > order[node]) {
+            refresh(right[node], block);
+        }
+        pull(node);
+    }
+
+    private int firstFrom(int node, long from, int size) {
+        if (node == NIL || maxFree[node] < size) {
+            return NIL;
+        }
+        examined++;
+        if (order[node] < from) {
+            return firstFrom(right[node], from, size);
+        }
+        int found = firstFrom(left[node], from, size);
+        if (found != NIL) {
+            return found;
+        }
+        if (blocks.isAvailable(node) && blocks.size[node] >= size) {
+            return node;
+        }
+        return firstFrom(right[node], Long.MIN_VALUE, size);
+    }
+
+    private int rotateRight(int node) {
+        int child = left[node];
+        left[node] = right[child];
+        right[child] = pull(node);
+        return child;
+    }
+
+    private int rotateLeft(int node) {
+        int child = right[node];
+        right[node] = left[child];
+        left[child] = pull(node);
+        return child;
+    }
+
+    private int pull(int node) {
+        count[node] = 1 + count(left[node]) + count(right[node]);
+        int own = blocks.isAvailable(node) ? blocks.size[node] : NO_FREE;
+        maxFree[node] = Math.max(own, Math.max(maxFree(left[node]), maxFree(right[node])));
+        freeUnits[node] = Math.max(own, 0) + freeUnits(left[node]) + freeUnits(right[node]);
+        units[node] = blocks.size[node] + units(left[node]) + units(right[node]);
+        return node;
+    }
+
+    private int count(int node) {
+        return node == NIL ? 0 : count[node];
+    }
+
+    private int maxFree(int node) {
+        return node == NIL ? NO_FREE : maxFree[node];
+    }
+
+    private long freeUnits(int node) {
+        return node == NIL ? 0 : freeUnits[node];
+    }
+
+    private long units(int node) {
+        return node == NIL ? 0 : units[node];
+    }
+
+    // Size treap over the available blocks, keyed by (size, list-order label)
+
+    private boolean sizeLess(int a, int b) {
+        int sa = blocks.size[a];
+        int sb = blocks.size[b];
+        return sa < sb || (sa == sb && order[a] < order[b]);
+    }
+
+    private int sizeInsert(int node, int block) {
+        if (node == NIL) {
+            sizeLeft[block] = NIL;
+            sizeRight[block] = NIL;
+            return block;
+        }
+        if (sizeLess(block, node)) {
+            sizeLeft[node] = sizeInsert(sizeLeft[node], block);
+            if (priority[sizeLeft[node]] > priority[node]) {
+                int child = sizeLeft[node];
+                sizeLeft[node] = sizeRight[child];
+                sizeRight[child] = node;
+                return child;
+            }
+        } else {
+            sizeRight[node] = sizeInsert(sizeRight[node], block);
+            if (priority[sizeRight[node]] > priority[node]) {
+                int child = sizeRight[node];
+                sizeRight[node] = sizeLeft[child];
+                sizeLeft[child] = node;
+                return child;
+            }
+        }
+        return node;
+    }
+
+    private int sizeDelete(int node, int block) {
+        if (node == block) {
+            return sizeMerge(sizeLeft[node], sizeRight[node]);
+        }
+        if (sizeLess(block, node)) {
+            sizeLeft[node] = sizeDelete(sizeLeft[node], block);
+        } else {
+            sizeRight[node] = sizeDelete(sizeRight[node], block);
+        }
+        return node;
+    }
+
+    private int sizeMerge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            sizeRight[a] = sizeMerge(sizeRight[a], b);
+            return a;
+        }
+        sizeLeft[b] = sizeMerge(a, sizeLeft[b]);
+        return b;
+    }
+
+    // Smallest available block of at least size, earliest in list order among equals
+    private int sizeCeiling(int size) {
+        int found = NIL;
+        int node = sizeRoot;
+        while (node != NIL) {
+            examined++;
+            if (blocks.size[node] >= size) {
+                found = node;
+                node = sizeLeft[node];
+            } else {
+                node = sizeRight[node];
+            }
+        }
+        return found;
+    }
+
+    private void grow(int capacity) {
+        order = Arrays.copyOf(order, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        count = Arrays.copyOf(count, capacity);
+        maxFree = Arrays.copyOf(maxFree, capacity);
+        freeUnits = Arrays.copyOf(freeUnits, capacity);
+        units = Arrays.copyOf(units, capacity);
+        sizeLeft = Arrays.copyOf(sizeLeft, capacity);
+        sizeRight = Arrays.copyOf(sizeRight, capacity);
+    }
+}
@@ -0,0 +1,28 @@
+// A job as both scheduler front ends describe it. The engine fills in everything after priority.
+class Job {
+    String name;
+    int arrivalTime;
+    int burstTime;
+    int priority;
+    int startTime;
+    int finishTime;
+    int remainingTime;
+    int turnaroundTime;
+    double weightedTurnaroundTime;
+    int dispatchTime;   // When the job last went on the CPU
+    int level;          // MLFQ queue level
+    int lastCore;       // Core the job last ran on in MultiCoreEngine, -1 before it first runs
+
+    public Job(String name, int arrivalTime, int burstTime, int priority) {
+        this.name = name;
+        this.arrivalTime = arrivalTime;
+        this.burstTime = burstTime;
+        this.priority = priority;
+        this.remainingTime = burstTime;
+    }
+
+    // The same job, unrun, for running one list of jobs in several simulations at once
+    Job(Job job) {
+        this(job.name, job.arrivalTime, job.burstTime, job.priority);
+    }
+}
@@ -0,0 +1,16 @@
+enum LoadBalancing {
+    GLOBAL("Global queue"),
+    PER_CORE("Per-core queues"),
+    WORK_STEALING("Work stealing");
+
+    final String label;
+
+    LoadBalancing(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.memorymanager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+public class MemoryManager {
+    int totalSize;
+    final BlockTable blocks = new BlockTable();
+    List<Job> jobs;
+    int lastAllocatedIndex = 0;
+    private final FreeBlockIndex index = new FreeBlockIndex(blocks);
+    private final AllocatorStats stats = new AllocatorStats();
+    private final Compactor compactor = new Compactor(this);
+    private BuddyAllocator buddy;
+    private SlabAllocator slabs;
+
+    public MemoryManager(int totalSize) {
+        this.totalSize = totalSize;
+        jobs = new ArrayList<>();
+    }
+
+    public void addBlock(int start, int size) {
+        insertAfter(blocks.last(), blocks.create(start, size, true));
+    }
+
+    public int blockCount() {
+        return blocks.count();
+    }
+
+    // Handle of the block at a list position
+    public int blockAt(int position) {
+        return index.get(position);
+    }
+
+    // Units held by the blocks before a list position, for drawing summaries without walking the list
+    public long unitsBefore(int position) {
+        return index.unitsBefore(position, false);
+    }
+
+    public long freeUnitsBefore(int position) {
+        return index.unitsBefore(position, true);
+    }
+
+    // List position of a block
+    public int positionOf(int block) {
+        return index.rank(block);
+    }
+
+    // One past the highest address covered by any block, or totalSize if that is larger
+    public int extent() {
+        int extent = totalSize;
+        for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+            extent = Math.max(extent, blocks.start[block] + blocks.size[block]);
+        }
+        return extent;
+    }
+
+    public boolean allocate(Job job, FitStrategy strategy) {
+        long begin = System.nanoTime();
+        long examined = place(job, strategy);
+        stats.record(strategy, examined, System.nanoTime() - begin, job.isAllocated);
+        return job.isAllocated;
+    }
+
+    // Like allocate, but when the job does not fit although enough memory is free in total, runs
+    // compaction steps until it fits or a whole pass has been made. The stats see one call, whose
+    // time includes the compaction.
+    public boolean allocateCompacting(Job job, FitStrategy strategy) {
+        long begin = System.nanoTime();
+        long examined = place(job, strategy);
+        if (!job.isAllocated && freeUnits() >= job.size) {
+            boolean passDone = false;
+            while (!passDone && !job.isAllocated) {
+                passDone = compactor.step(Compactor.DEFAULT_STEP);
+                if (largestFreeBlock() >= job.size) {
+                    examined += place(job, strategy);
+                }
+            }
+        }
+        stats.record(strategy, examined, System.nanoTime() - begin, job.isAllocated);
+        return job.isAllocated;
+    }
+
+    // Tries the strategy once without recording it; returns the blocks examined
+    private long place(Job job, FitStrategy strategy) {
+        long examinedBefore = index.examined;
+        switch (strategy) {
+            case FIRST_FIT:
+                firstFit(job);
+                break;
+            case NEXT_FIT:
+                nextFit(job);
+                break;
+            case BEST_FIT:
+                bestFit(job);
+                break;
+            case WORST_FIT:
+                worstFit(job);
+                break;
+            case BUDDY:
+                buddyFit(job);
+                break;
+            case SEGREGATED_FIT:
+                segregatedFit(job);
+                break;
+        }
+        long examined = index.examined - examinedBefore;
+        if (strategy == FitStrategy.BUDDY || (strategy == FitStrategy.SEGREGATED_FIT && examined == 0)) {
+            examined = 1; // A single free-list pop
+        }
+        return examined;
+    }
+
+    public Compactor compactor() {
+        return compactor;
+    }
+
+    public AllocatorStats stats() {
+        return stats;
+    }
+
+    // Largest block open to the split-based strategies
+    public int largestFreeBlock() {
+        return Math.max(index.largestFree(), 0);
+    }
+
+    public long freeUnits() {
+        return index.freeUnits();
+    }
+
+    // 1 - largest free block / total free space: 0 when all free space is one block
+    public double externalFragmentation() {
+        long free = index.freeUnits();
+        return free == 0 ? 0 : 1 - (double) largestFreeBlock() / free;
+    }
+
+    // Places a whole batch largest job first (first-fit-decreasing with FIRST_FIT, best-fit-decreasing
+    // with BEST_FIT, and so on). Jobs that are already allocated are left out of the result. Once the
+    // largest free block is smaller than the smallest job left, the rest are reported without lookups.
+    public BatchResult allocateBatch(List<Job> batch, FitStrategy strategy) {
+        List<Job> pending = new ArrayList<>(batch.size());
+        for (Job job : batch) {
+            if (!job.isAllocated) {
+                pending.add(job);
+            }
+        }
+        pending.sort(Comparator.comparingInt((Job job) -> job.size).reversed());
+        BatchResult result = new BatchResult();
+        int i = 0;
+        for (; i < pending.size(); i++) {
+            Job job = pending.get(i);
+            if (strategy != FitStrategy.BUDDY && strategy != FitStrategy.SEGREGATED_FIT
+                    && index.largestFree() < pending.get(pending.size() - 1).size) {
+                break;
+            }
+            if (allocate(job, strategy)) {
+                result.placed().add(job);
+            } else {
+                result.unplaced().add(job);
+            }
+        }
+        result.unplaced().addAll(pending.subList(i, pending.size()));
+        return result;
+    }
+
+    public void firstFit(Job job) {
+        int block = index.firstFit(job.size);
+        if (block != NIL) {
+            allocateMemory(block, job);
+        }
+    }
+
+    public void nextFit(Job job) {
+        int size = blocks.count();
+        if (size == 0) {
+            return;
+        }
+        int block = index.nextFit(lastAllocatedIndex % size, job.size);
+        if (block != NIL) {
+            allocateMemory(block, job);
+            lastAllocatedIndex = index.rank(block);
+        }
+    }
+
+    public void bestFit(Job job) {
+        int bestBlock = index.bestFit(job.size);
+        if (bestBlock != NIL) {
+            allocateMemory(bestBlock, job);
+        }
+    }
+
+    public void worstFit(Job job) {
+        int worstBlock = index.worstFit(job.size);
+        if (worstBlock != NIL) {
+            allocateMemory(worstBlock, job);
+        }
+    }
+
+    // The first buddy allocation takes over every free block; later ones are served from its free lists
+    public void buddyFit(Job job) {
+        if (buddy == null) {
+            buddy = new BuddyAllocator(this);
+            List<Integer> available = new ArrayList<>();
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                if (blocks.isAvailable(block)) {
+                    available.add(block);
+                }
+            }
+            for (int block : available) {
+                buddy.adopt(block);
+            }
+        }
+        int block = buddy.allocate(job.size);
+        if (block != NIL) {
+            job.isAllocated = true;
+            job.memoryBlock = block;
+        }
+    }
+
+    // Small jobs come from per-size-class free lists; larger ones fall back to best fit
+    public void segregatedFit(Job job) {
+        if (!SlabAllocator.isSmall(job.size)) {
+            bestFit(job);
+            return;
+        }
+        if (slabs == null) {
+            slabs = new SlabAllocator(this);
+        }
+        int block = slabs.allocate(job.size);
+        if (block != NIL) {
+            job.isAllocated = true;
+            job.memoryBlock = block;
+        }
+    }
+
+    // Space handed to jobs beyond what they asked for; the buddy and segregated strategies round sizes up
+    public int internalFragmentation() {
+        int total = 0;
+        for (Job job : jobs) {
+            if (job.isAllocated) {
+                total += blocks.size[job.memoryBlock] - job.size;
+            }
+        }
+        return total;
+    }
+
+    private void allocateMemory(int block, Job job) {
+        split(block, job.size);
+        index.update(block, job.size, false);
+        job.isAllocated = true;
+        job.memoryBlock = block; // Link job to its memory block
+    }
+
+    public void free(Job job) {
+        if (!job.isAllocated) {
+            return;
+        }
+        release(job.memoryBlock);
+        job.isAllocated = false;
+        job.memoryBlock = NIL;
+    }
+
+    // Marks the block free and merges it with free neighbours that are contiguous in memory.
+    // Returns the block that now holds the freed range.
+    public int release(int block) {
+        if (blocks.buddyOrder[block] >= 0) {
+            return buddy.release(block);
+        }
+        if (blocks.slabClass[block] >= 0) {
+            return slabs.release(block);
+        }
+        int size = blocks.size[block];
+        int next = blocks.next[block];
+        if (next != NIL && blocks.isAvailable(next) && blocks.start[block] + blocks.size[block] == blocks.start[next]) {
+            size += blocks.size[next];
+            removeBlock(next);
+        }
+        int prev = blocks.prev[block];
+        if (prev != NIL && blocks.isAvailable(prev) && blocks.start[prev] + blocks.size[prev] == blocks.start[block]) {
+            removeBlock(block);
+            index.update(prev, blocks.size[prev] + size, true);
+            return prev;
+        }
+        index.update(block, size, true);
+        return block;
+    }
+
+    int bestFreeBlock(int size) {
+        return index.bestFit(size);
+    }
+
+    // Returns the part of a free block beyond size to the free blocks; the caller resizes the block itself
+    void split(int block, int size) {
+        if (blocks.size[block] > size) {
+            insertAfter(block, blocks.create(blocks.start[block] + size, blocks.size[block] - size, true));
+        }
+    }
+
+    // Links a block created in the table right after anchor and indexes it
+    void insertAfter(int anchor, int block) {
+        blocks.linkAfter(anchor, block);
+        index.insert(block);
+    }
+
+    // Resizes a block the buddy or slab allocator owns, keeping the index's unit sums current
+    void resize(int block, int size) {
+        index.detach(block);
+        blocks.size[block] = size;
+        index.attach(block);
+    }
+
+    // Hands a free block to the buddy or slab allocator, which then owns its size and free state
+    void reserve(int block, int buddyOrder, int slabClass) {
+        index.detach(block);
+        blocks.buddyOrder[block] = (byte) buddyOrder;
+        blocks.slabClass[block] = (byte) slabClass;
+        index.attach(block);
+    }
+
+    // Swaps a free block with the allocated block right after it, sliding the allocated block down to
+    // the free block's start. Handles stay the same, so every Job.memoryBlock stays valid.
+    void slideDown(int free, int used) {
+        int rank = index.rank(free);
+        index.remove(used);
+        blocks.unlink(used);
+        blocks.linkAfter(blocks.prev[free], used);
+        index.insert(used);
+        blocks.start[used] = blocks.start[free];
+        blocks.start[free] = blocks.start[used] + blocks.size[used];
+        if (lastAllocatedIndex == rank) {
+            lastAllocatedIndex = rank + 1;
+        } else if (lastAllocatedIndex == rank + 1) {
+            lastAllocatedIndex = rank;
+        }
+    }
+
+    // The allocators owning blocks, or null while their strategy has not been used; for MemorySnapshot
+    BuddyAllocator buddyAllocator() {
+        return buddy;
+    }
+
+    SlabAllocator slabAllocator() {
+        return slabs;
+    }
+
+    // Finishes a manager restored from a snapshot, whose blocks are already linked into the table
+    void restored(BuddyAllocator buddy, SlabAllocator slabs) {
+        this.buddy = buddy;
+        this.slabs = slabs;
+        index.build();
+    }
+
+    void removeBlock(int block) {
+        int rank = index.rank(block);
+        index.remove(block);
+        blocks.remove(block);
+        if (rank < lastAllocatedIndex) {
+            lastAllocatedIndex--; // Keep next fit pointing at the same block
+        }
+    }
+
+    public void resetMemory() {
+        blocks.clear();
+        index.clear();
+        buddy = null;
+        slabs = null;
+        compactor.reset();
+    }
+
+    public void resetJobs() {
+        jobs.clear();
+    }
+
+    public void clearAll() {
+        resetMemory();
+        resetJobs();
+        stats.reset();
+    }
+}
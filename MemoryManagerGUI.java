@@ -4,26 +4,53 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 public class MemoryManagerGUI extends JFrame {
+    private static final int COMPACT_STEP = 2; // Blocks visited per compaction tick
+    private static final int ALLOCATION_BATCH = 256; // Jobs placed per hold of the manager lock
+    private static final long REFRESH_INTERVAL_NANOS = 100_000_000L; // Least time between view refreshes
+    // Ten blocks of 20..80 units at most 20 apart always fit the 1000 units of the example memory
+    private static final WorkloadGenerator.Distribution BLOCK_SIZES = WorkloadGenerator.Distribution.uniform(20, 80);
+    private static final WorkloadGenerator.Distribution BLOCK_GAPS = WorkloadGenerator.Distribution.uniform(0, 20);
+    private static final WorkloadGenerator.Distribution JOB_SIZES = WorkloadGenerator.Distribution.uniform(10, 60);
     private JTable memoryTable;
     private JTable jobTable;
+    private BlockTableModel memoryTableModel;
+    private JobTableModel jobTableModel;
     private JButton generateMemoryButton;
     private JButton generateJobsButton;
     private JButton allocateButton;
     private JButton resetButton;
     private JButton allocateRemainingButton;
     private JButton clearAllButton;
+    private JButton releaseButton;
+    private JButton compactButton;
+    private Timer compactTimer;
+    private JButton cancelButton;
+    private JProgressBar progressBar;
+    private AllocationWorker allocationWorker;
     private JRadioButton firstFitRadio;
     private JRadioButton nextFitRadio;
     private JRadioButton bestFitRadio;
     private JRadioButton worstFitRadio;
+    private JRadioButton buddyRadio;
+    private JRadioButton segregatedFitRadio;
     private ButtonGroup algorithmGroup;
     private MemoryManager manager;
+    private long nextSeed = 1; // Generated layouts and job lists repeat from run to run
     private MemoryPanel memoryPanel;
+    private StatsPanel statsPanel;
 
     public MemoryManagerGUI() {
         setTitle("Memory Manager Simulation");
@@ -32,8 +59,10 @@ public class MemoryManagerGUI extends JFrame {
         setLayout(new BorderLayout());
 
         // Create and set up the memory and job tables
-        memoryTable = new JTable(new String[0][3], new String[]{"Start", "Size", "Free"});
-        jobTable = new JTable(new String[0][2], new String[]{"ID", "Size"});
+        memoryTableModel = new BlockTableModel();
+        jobTableModel = new JobTableModel();
+        memoryTable = new JTable(memoryTableModel);
+        jobTable = new JTable(jobTableModel);
 
         // Create buttons and radio buttons
         generateMemoryButton = new JButton("Generate Memory Blocks");
@@ -42,23 +71,35 @@ public class MemoryManagerGUI extends JFrame {
         resetButton = new JButton("Reset");
         allocateRemainingButton = new JButton("Allocate Remaining");
         clearAllButton = new JButton("Clear All");
+        releaseButton = new JButton("Release Job");
+        compactButton = new JButton("Compact");
+        cancelButton = new JButton("Cancel");
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
 
         firstFitRadio = new JRadioButton("First Fit");
         nextFitRadio = new JRadioButton("Next Fit");
         bestFitRadio = new JRadioButton("Best Fit");
         worstFitRadio = new JRadioButton("Worst Fit");
+        buddyRadio = new JRadioButton("Buddy System");
+        segregatedFitRadio = new JRadioButton("Segregated Fit");
 
         algorithmGroup = new ButtonGroup();
         algorithmGroup.add(firstFitRadio);
         algorithmGroup.add(nextFitRadio);
         algorithmGroup.add(bestFitRadio);
         algorithmGroup.add(worstFitRadio);
+        algorithmGroup.add(buddyRadio);
+        algorithmGroup.add(segregatedFitRadio);
 
         // Disable buttons initially
         allocateButton.setEnabled(false);
         resetButton.setEnabled(false);
         allocateRemainingButton.setEnabled(false);
         clearAllButton.setEnabled(false);
+        releaseButton.setEnabled(false);
+        compactButton.setEnabled(false);
+        cancelButton.setEnabled(false);
 
         // Set up the panel with buttons and radio buttons
         JPanel controlPanel = new JPanel();
@@ -69,16 +110,26 @@ public class MemoryManagerGUI extends JFrame {
         controlPanel.add(resetButton);
         controlPanel.add(allocateRemainingButton);
         controlPanel.add(clearAllButton);
+        controlPanel.add(releaseButton);
+        controlPanel.add(compactButton);
+        controlPanel.add(cancelButton);
+        controlPanel.add(progressBar);
         controlPanel.add(firstFitRadio);
         controlPanel.add(nextFitRadio);
         controlPanel.add(bestFitRadio);
         controlPanel.add(worstFitRadio);
+        controlPanel.add(buddyRadio);
+        controlPanel.add(segregatedFitRadio);
 
         // Add table and control panel to the frame
         memoryPanel = new MemoryPanel();
+        statsPanel = new StatsPanel();
+        JPanel viewPanel = new JPanel(new BorderLayout());
+        viewPanel.add(memoryPanel, BorderLayout.CENTER);
+        viewPanel.add(statsPanel, BorderLayout.EAST);
         add(new JScrollPane(memoryTable), BorderLayout.NORTH);
         add(new JScrollPane(jobTable), BorderLayout.CENTER);
-        add(memoryPanel, BorderLayout.EAST);
+        add(viewPanel, BorderLayout.EAST);
         add(controlPanel, BorderLayout.SOUTH);
 
         // Set up event listeners
@@ -124,6 +175,20 @@ public class MemoryManagerGUI extends JFrame {
             }
         });
 
+        buddyRadio.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                allocateButton.setEnabled(true);
+            }
+        });
+
+        segregatedFitRadio.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                allocateButton.setEnabled(true);
+            }
+        });
+
         allocateButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -152,274 +217,727 @@ public class MemoryManagerGUI extends JFrame {
             }
         });
 
+        releaseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                releaseSelectedJob();
+            }
+        });
+
+        compactButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                compactTimer.start();
+                compactButton.setEnabled(false);
+            }
+        });
+
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (allocationWorker != null) {
+                    allocationWorker.cancel(false);
+                }
+            }
+        });
+
+        // Compaction runs a few blocks per tick, so the blocks can be seen sliding together
+        compactTimer = new Timer(100, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                boolean passDone = manager.compactor().step(COMPACT_STEP);
+                memoryTableModel.rowsChanged(0);
+                memoryPanel.markAllDirty();
+                statsPanel.refresh();
+                if (passDone) {
+                    compactTimer.stop();
+                    compactButton.setEnabled(true);
+                }
+            }
+        });
+
         setVisible(true);
         manager = new MemoryManager(1000); // Example total memory size
+        memoryPanel.setManager(manager);
     }
 
     private void generateMemoryBlocks() {
-        Random random = new Random();
-        manager.memoryBlocks.clear();
-        for (int i = 0; i < 10; i++) {
-            int start = random.nextInt(900); // Ensure start + size <= 1000
-            int size = random.nextInt(100) + 20; // size between 20 and 120
-            manager.memoryBlocks.add(new MemoryBlock(start, size, true));
-        }
-        updateMemoryTable();
-        memoryPanel.repaint();
+        manager.resetMemory();
+        new WorkloadGenerator(nextSeed++).layout(new AllocationTrace.Visitor() {
+            @Override
+            public void block(int start, int size) {
+                manager.addBlock(start, size);
+            }
+
+            @Override
+            public void alloc(int id, int size) {
+            }
+
+            @Override
+            public void free(int id) {
+            }
+        }, 10, BLOCK_SIZES, BLOCK_GAPS);
+        memoryTableModel.rowsChanged(0);
+        memoryPanel.layoutChanged();
+        statsPanel.refresh();
         generateMemoryButton.setEnabled(false);
         resetButton.setEnabled(true);
         clearAllButton.setEnabled(true);
     }
 
     private void generateJobs() {
-        Random random = new Random();
         manager.jobs.clear();
-        for (int i = 0; i < 10; i++) {
-            int size = random.nextInt(50) + 10; // size between 10 and 60
-            manager.jobs.add(new Job(i, size));
+        // Only the allocations of the stream become jobs; the lifetimes never run out within ten
+        WorkloadGenerator.Events events = new WorkloadGenerator(nextSeed++)
+                .events(JOB_SIZES, WorkloadGenerator.Distribution.uniform(10, 10));
+        while (manager.jobs.size() < 10) {
+            events.next();
+            manager.jobs.add(new Job(events.id, events.size));
         }
-        updateJobTable();
+        jobTableModel.rowsChanged(0);
         generateJobsButton.setEnabled(false);
     }
 
     private void allocateJobs() {
-        if (firstFitRadio.isSelected()) {
-            for (Job job : manager.jobs) {
-                manager.firstFit(job);
-            }
-        } else if (nextFitRadio.isSelected()) {
-            for (Job job : manager.jobs) {
-                manager.nextFit(job);
-            }
+        startAllocation(new ArrayList<>(manager.jobs), false);
+    }
+
+    private FitStrategy selectedStrategy() {
+        if (nextFitRadio.isSelected()) {
+            return FitStrategy.NEXT_FIT;
         } else if (bestFitRadio.isSelected()) {
-            for (Job job : manager.jobs) {
-                manager.bestFit(job);
-            }
+            return FitStrategy.BEST_FIT;
         } else if (worstFitRadio.isSelected()) {
-            for (Job job : manager.jobs) {
-                manager.worstFit(job);
-            }
+            return FitStrategy.WORST_FIT;
+        } else if (buddyRadio.isSelected()) {
+            return FitStrategy.BUDDY;
+        } else if (segregatedFitRadio.isSelected()) {
+            return FitStrategy.SEGREGATED_FIT;
         }
-        updateMemoryTable();
-        updateJobTable();
-        memoryPanel.repaint();
-        allocateButton.setEnabled(false);
-        allocateRemainingButton.setEnabled(true);
+        return FitStrategy.FIRST_FIT;
     }
 
     private void resetMemoryAndJobs() {
         manager.resetMemory();
         manager.resetJobs();
-        updateMemoryTable();
-        updateJobTable();
-        memoryPanel.repaint();
+        memoryTableModel.rowsChanged(0);
+        jobTableModel.rowsChanged(0);
+        memoryPanel.layoutChanged();
+        statsPanel.refresh();
         generateMemoryButton.setEnabled(true);
         generateJobsButton.setEnabled(true);
         allocateButton.setEnabled(false);
         resetButton.setEnabled(false);
         allocateRemainingButton.setEnabled(false);
         clearAllButton.setEnabled(false);
+        releaseButton.setEnabled(false);
+        compactTimer.stop();
+        compactButton.setEnabled(false);
     }
 
+    // The jobs left over are placed largest first, which packs them better than arrival order
     private void allocateRemainingJobs() {
+        List<Job> pending = new ArrayList<>();
         for (Job job : manager.jobs) {
             if (!job.isAllocated) {
-                if (firstFitRadio.isSelected()) {
-                    manager.firstFit(job);
-                } else if (nextFitRadio.isSelected()) {
-                    manager.nextFit(job);
-                } else if (bestFitRadio.isSelected()) {
-                    manager.bestFit(job);
-                } else if (worstFitRadio.isSelected()) {
-                    manager.worstFit(job);
+                pending.add(job);
+            }
+        }
+        startAllocation(pending, true);
+    }
+
+    // Places the jobs on a worker thread; every button that changes the manager stays disabled until it is done
+    private void startAllocation(List<Job> pending, boolean largestFirst) {
+        if (allocationWorker != null) {
+            return; // The radio buttons re-enable Allocate while a run is in progress
+        }
+        compactTimer.stop();
+        allocationWorker = new AllocationWorker(pending, selectedStrategy(), largestFirst);
+        for (JButton button : new JButton[]{generateMemoryButton, generateJobsButton, allocateButton, resetButton,
+                allocateRemainingButton, clearAllButton, releaseButton, compactButton}) {
+            button.setEnabled(false);
+        }
+        cancelButton.setEnabled(true);
+        progressBar.setMaximum(Math.max(pending.size(), 1));
+        progressBar.setValue(0);
+        progressBar.setString(null);
+        allocationWorker.execute();
+    }
+
+    private void refreshViews() {
+        memoryTableModel.rowsChanged(0);
+        jobTableModel.rowsChanged(0);
+        memoryPanel.markAllDirty();
+        statsPanel.refresh();
+    }
+
+    // Allocates in batches under the manager's lock, so the views can read the manager in between.
+    // Progress is published at most every REFRESH_INTERVAL_NANOS; the views then redraw from the live
+    // layout rather than from a copy of it. Largest first, the jobs are sorted once and each batch goes
+    // through MemoryManager.allocateBatch, so the batches together place them in decreasing size.
+    class AllocationWorker extends SwingWorker<Void, Integer> {
+        private final List<Job> pending;
+        private final FitStrategy strategy;
+        private final boolean largestFirst;
+        private int unplaced;
+        private final boolean generateMemoryEnabled = generateMemoryButton.isEnabled();
+        private final boolean generateJobsEnabled = generateJobsButton.isEnabled();
+
+        AllocationWorker(List<Job> pending, FitStrategy strategy, boolean largestFirst) {
+            this.pending = pending;
+            this.strategy = strategy;
+            this.largestFirst = largestFirst;
+        }
+
+        @Override
+        protected Void doInBackground() {
+            if (largestFirst) {
+                pending.sort(Comparator.comparingInt((Job job) -> job.size).reversed());
+            }
+            long lastPublished = System.nanoTime();
+            for (int done = 0; done < pending.size() && !isCancelled(); ) {
+                int end = Math.min(done + ALLOCATION_BATCH, pending.size());
+                synchronized (manager) {
+                    if (largestFirst) {
+                        unplaced += manager.allocateBatch(pending.subList(done, end), strategy).unplaced().size();
+                        done = end;
+                    }
+                    for (; done < end; done++) {
+                        manager.allocate(pending.get(done), strategy);
+                    }
+                }
+                if (System.nanoTime() - lastPublished >= REFRESH_INTERVAL_NANOS) {
+                    publish(done);
+                    lastPublished = System.nanoTime();
                 }
             }
+            return null;
+        }
+
+        @Override
+        protected void process(List<Integer> progress) {
+            progressBar.setValue(progress.get(progress.size() - 1));
+            refreshViews();
+        }
+
+        @Override
+        protected void done() {
+            progressBar.setValue(isCancelled() ? progressBar.getValue() : progressBar.getMaximum());
+            progressBar.setString(isCancelled() ? "Cancelled" : unplaced > 0 ? unplaced + " jobs did not fit" : null);
+            refreshViews();
+            cancelButton.setEnabled(false);
+            generateMemoryButton.setEnabled(generateMemoryEnabled);
+            generateJobsButton.setEnabled(generateJobsEnabled);
+            resetButton.setEnabled(true);
+            clearAllButton.setEnabled(true);
+            allocateRemainingButton.setEnabled(true);
+            releaseButton.setEnabled(true);
+            compactButton.setEnabled(true);
+            allocationWorker = null;
+        }
+    }
+
+    private void releaseSelectedJob() {
+        int row = jobTable.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        Job job = manager.jobs.get(row);
+        if (!job.isAllocated) {
+            return;
         }
-        updateMemoryTable();
-        updateJobTable();
-        memoryPanel.repaint();
+        int start = manager.blocks.start[job.memoryBlock];
+        int end = start + manager.blocks.size[job.memoryBlock];
+        int position = manager.positionOf(job.memoryBlock);
+        manager.free(job);
+        memoryTableModel.rowsChanged(Math.max(position - 1, 0)); // The block may have merged into the one before
+        jobTableModel.rowsChanged(row);
+        memoryPanel.markDirty(start, end);
+        statsPanel.refresh();
     }
 
     private void clearAllData() {
         manager.clearAll();
-        updateMemoryTable();
-        updateJobTable();
-        memoryPanel.repaint();
+        memoryTableModel.rowsChanged(0);
+        jobTableModel.rowsChanged(0);
+        memoryPanel.layoutChanged();
+        statsPanel.refresh();
         generateMemoryButton.setEnabled(true);
         generateJobsButton.setEnabled(true);
         allocateButton.setEnabled(false);
         resetButton.setEnabled(false);
         allocateRemainingButton.setEnabled(false);
         clearAllButton.setEnabled(false);
-    }
-
-    private void updateMemoryTable() {
-        String[][] memoryData = new String[manager.memoryBlocks.size()][3];
-        for (int i = 0; i < manager.memoryBlocks.size(); i++) {
-            MemoryBlock block = manager.memoryBlocks.get(i);
-            memoryData[i][0] = String.valueOf(block.start);
-            memoryData[i][1] = String.valueOf(block.size);
-            memoryData[i][2] = block.isFree ? "Yes" : "No";
-        }
-        memoryTable.setModel(new javax.swing.table.DefaultTableModel(memoryData, new String[]{"Start", "Size", "Free"}));
-    }
-
-    private void updateJobTable() {
-        String[][] jobData = new String[manager.jobs.size()][2];
-        for (int i = 0; i < manager.jobs.size(); i++) {
-            Job job = manager.jobs.get(i);
-            jobData[i][0] = String.valueOf(job.id);
-            jobData[i][1] = String.valueOf(job.size);
-        }
-        jobTable.setModel(new javax.swing.table.DefaultTableModel(jobData, new String[]{"ID", "Size"}));
+        releaseButton.setEnabled(false);
+        compactTimer.stop();
+        compactButton.setEnabled(false);
     }
 
     public static void main(String[] args) {
         new MemoryManagerGUI();
     }
 
-    class MemoryManager {
-        int totalSize;
-        List<MemoryBlock> memoryBlocks;
-        List<Job> jobs;
-        int lastAllocatedIndex = 0;
+    // Draws the address space as a vertical strip, cached in an off-screen image; only the rows that
+    // cover dirty address ranges are drawn again. With few blocks in view each block is drawn and
+    // labelled, otherwise every pixel row is binned and shaded by the share of its addresses that are
+    // allocated (red), free (green) or outside any block (grey). Both views count free chunks the buddy
+    // and slab allocators hold as allocated, since no other strategy can place a job there. The mouse
+    // wheel zooms around the pointer, dragging pans, and a double click shows the whole address space again.
+    static class MemoryPanel extends JPanel {
+        private static final int MARGIN = 10;
+        private static final int STRIP_WIDTH = 100;
+        private static final int MAX_LABELLED = 40; // Most blocks in view that are still drawn one by one
+        private static final Color GAP = new Color(220, 220, 220);
+
+        private MemoryManager manager;
+        private BufferedImage image;
+        private double viewStart;    // Address at the top of the strip
+        private double viewSpan;     // Addresses covered by the strip
+        private int extent;
+        private boolean sorted;      // List order is address order, so blocks can be found by binary search
+        private boolean labelled;
+        private boolean allDirty = true;
+        private double dirtyFrom = Double.MAX_VALUE;
+        private double dirtyTo = -Double.MAX_VALUE;
+        private int dragY;
+        private double dragStart;
+
+        MemoryPanel() {
+            setPreferredSize(new Dimension(320, 520));
+            addMouseWheelListener(new MouseWheelListener() {
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    double anchor = addressAt(e.getY());
+                    double span = viewSpan * Math.pow(1.25, e.getPreciseWheelRotation());
+                    viewSpan = Math.max(Math.min(span, extent), Math.min(rows(), extent));
+                    viewStart = anchor - (e.getY() - MARGIN) * viewSpan / rows();
+                    moveView();
+                }
+            });
+            MouseAdapter drag = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragY = e.getY();
+                    dragStart = viewStart;
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    viewStart = dragStart - (e.getY() - dragY) * viewSpan / rows();
+                    moveView();
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) {
+                        viewStart = 0;
+                        viewSpan = extent;
+                        moveView();
+                    }
+                }
+            };
+            addMouseListener(drag);
+            addMouseMotionListener(drag);
+        }
 
-        public MemoryManager(int totalSize) {
-            this.totalSize = totalSize;
-            memoryBlocks = new ArrayList<>();
-            jobs = new ArrayList<>();
+        void setManager(MemoryManager manager) {
+            this.manager = manager;
+            layoutChanged();
         }
 
-        public void firstFit(Job job) {
-            for (MemoryBlock block : memoryBlocks) {
-                if (block.isFree && block.size >= job.size) {
-                    allocateMemory(block, job);
+        // Blocks were added or removed wholesale: measure the address space again and show all of it
+        void layoutChanged() {
+            extent = Math.max(manager.extent(), 1);
+            sorted = true;
+            BlockTable blocks = manager.blocks;
+            for (int block = blocks.first(); block != BlockTable.NIL && blocks.next[block] != BlockTable.NIL; block = blocks.next[block]) {
+                if (blocks.start[block] + blocks.size[block] > blocks.start[blocks.next[block]]) {
+                    sorted = false;
                     break;
                 }
             }
+            viewStart = 0;
+            viewSpan = extent;
+            markAllDirty();
+        }
+
+        void markAllDirty() {
+            allDirty = true;
+            repaint();
+        }
+
+        // Only the addresses in [from, to) changed
+        void markDirty(int from, int to) {
+            dirtyFrom = Math.min(dirtyFrom, from);
+            dirtyTo = Math.max(dirtyTo, to);
+            repaint();
         }
 
-        public void nextFit(Job job) {
-            int startIndex = lastAllocatedIndex;
-            int size = memoryBlocks.size();
-            for (int i = 0; i < size; i++) {
-                int index = (startIndex + i) % size;
-                MemoryBlock block = memoryBlocks.get(index);
-                if (block.isFree && block.size >= job.size) {
-                    allocateMemory(block, job);
-                    lastAllocatedIndex = index;
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (manager == null || getHeight() <= 2 * MARGIN) {
+                return;
+            }
+            if (image == null || image.getWidth() != getWidth() || image.getHeight() != getHeight()) {
+                image = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+                allDirty = true;
+            }
+            synchronized (manager) {
+                if (allDirty || (labelled && dirtyFrom < dirtyTo)) {
+                    drawAll();
+                } else if (dirtyFrom < dirtyTo) {
+                    int first = Math.max((int) Math.floor((dirtyFrom - viewStart) * rows() / viewSpan), 0);
+                    int last = Math.min((int) Math.ceil((dirtyTo - viewStart) * rows() / viewSpan), rows());
+                    if (first < last) {
+                        drawBins(first, last);
+                    }
+                }
+            }
+            allDirty = false;
+            dirtyFrom = Double.MAX_VALUE;
+            dirtyTo = -Double.MAX_VALUE;
+            g.drawImage(image, 0, 0, null);
+        }
+
+        private void drawAll() {
+            Graphics2D g = image.createGraphics();
+            g.setColor(getBackground());
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.dispose();
+            List<Integer> visible = new ArrayList<>();
+            BlockTable blocks = manager.blocks;
+            double viewEnd = viewStart + viewSpan;
+            for (int block = firstBlockFrom(viewStart); block != BlockTable.NIL && visible.size() <= MAX_LABELLED; block = blocks.next[block]) {
+                if (sorted && blocks.start[block] >= viewEnd) {
                     break;
                 }
+                if (blocks.start[block] + blocks.size[block] > viewStart && blocks.start[block] < viewEnd) {
+                    visible.add(block);
+                }
+            }
+            labelled = visible.size() <= MAX_LABELLED;
+            if (labelled) {
+                drawLabelled(visible);
+            } else {
+                drawBins(0, rows());
             }
         }
 
-        public void bestFit(Job job) {
-            MemoryBlock bestBlock = null;
-            for (MemoryBlock block : memoryBlocks) {
-                if (block.isFree && block.size >= job.size) {
-                    if (bestBlock == null || block.size < bestBlock.size) {
-                        bestBlock = block;
+        private void drawLabelled(List<Integer> visible) {
+            Map<Integer, Integer> jobIds = new HashMap<>();
+            for (Job job : manager.jobs) {
+                if (job.isAllocated) {
+                    jobIds.put(job.memoryBlock, job.id);
+                }
+            }
+            BlockTable blocks = manager.blocks;
+            Graphics2D g = image.createGraphics();
+            g.setColor(GAP);
+            g.fillRect(MARGIN, MARGIN, STRIP_WIDTH, rows());
+            double scale = rows() / viewSpan;
+            for (int block : visible) {
+                int top = MARGIN + (int) Math.max(Math.round((blocks.start[block] - viewStart) * scale), 0);
+                int bottom = MARGIN + (int) Math.min(Math.round((blocks.start[block] + blocks.size[block] - viewStart) * scale), rows());
+                int blockHeight = Math.max(bottom - top, 1);
+                g.setColor(blocks.isAvailable(block) ? Color.GREEN : Color.RED);
+                g.fillRect(MARGIN, top, STRIP_WIDTH, blockHeight);
+                g.setColor(Color.BLACK);
+                g.drawRect(MARGIN, top, STRIP_WIDTH, blockHeight);
+                String label = blocks.free[block] || !jobIds.containsKey(block)
+                        ? "Start: " + blocks.start[block] + ", Size: " + blocks.size[block]
+                        : "Job ID: " + jobIds.get(block) + ", Size: " + blocks.size[block];
+                g.drawString(label, MARGIN + STRIP_WIDTH + 10, top + blockHeight / 2 + 5);
+            }
+            g.dispose();
+        }
+
+        // Shades pixel rows [first, last) by how their addresses are used. Memory held by the buddy and
+        // slab allocators counts as in use. In address order the units below every row boundary come
+        // from the index's prefix sums, so the cost does not depend on how many blocks are in view.
+        private void drawBins(int first, int last) {
+            double perRow = viewSpan / rows();
+            double[] used = new double[last - first];
+            double[] free = new double[last - first];
+            if (sorted) {
+                double unitsBelow = 0;
+                double freeBelow = 0;
+                for (int row = 0; row <= used.length; row++) {
+                    double address = viewStart + (first + row) * perRow;
+                    int position = positionFrom(address);
+                    double units = manager.unitsBefore(position);
+                    double freeUnits = manager.freeUnitsBefore(position);
+                    if (position < manager.blockCount()) {
+                        int block = manager.blockAt(position);
+                        double inside = Math.max(address - manager.blocks.start[block], 0);
+                        units += inside;
+                        freeUnits += manager.blocks.isAvailable(block) ? inside : 0;
+                    }
+                    if (row > 0) {
+                        free[row - 1] = freeUnits - freeBelow;
+                        used[row - 1] = units - unitsBelow - free[row - 1];
                     }
+                    unitsBelow = units;
+                    freeBelow = freeUnits;
                 }
+            } else {
+                addBlocks(used, free, viewStart + first * perRow, perRow);
             }
-            if (bestBlock != null) {
-                allocateMemory(bestBlock, job);
+            int[] pixels = new int[STRIP_WIDTH];
+            for (int row = 0; row < used.length; row++) {
+                double u = Math.min(used[row] / perRow, 1);
+                double f = Math.min(free[row] / perRow, 1 - u);
+                Arrays.fill(pixels, blend(u, f));
+                image.setRGB(MARGIN, MARGIN + first + row, STRIP_WIDTH, 1, pixels, 0, STRIP_WIDTH);
             }
         }
 
-        public void worstFit(Job job) {
-            MemoryBlock worstBlock = null;
-            for (MemoryBlock block : memoryBlocks) {
-                if (block.isFree && block.size >= job.size) {
-                    if (worstBlock == null || block.size > worstBlock.size) {
-                        worstBlock = block;
+        // Bins every block by walking the list, for layouts that are not in address order
+        private void addBlocks(double[] used, double[] free, double from, double perRow) {
+            double to = from + used.length * perRow;
+            BlockTable blocks = manager.blocks;
+            for (int block = blocks.first(); block != BlockTable.NIL; block = blocks.next[block]) {
+                double start = Math.max(blocks.start[block], from);
+                double end = Math.min(blocks.start[block] + blocks.size[block], to);
+                double[] bins = blocks.isAvailable(block) ? free : used;
+                int lastRow = Math.min((int) Math.ceil((end - from) / perRow), bins.length);
+                for (int row = Math.max((int) ((start - from) / perRow), 0); row < lastRow; row++) {
+                    double overlap = Math.min(end, from + (row + 1) * perRow) - Math.max(start, from + row * perRow);
+                    if (overlap > 0) {
+                        bins[row] += overlap;
                     }
                 }
             }
-            if (worstBlock != null) {
-                allocateMemory(worstBlock, job);
+        }
+
+        private static int blend(double used, double free) {
+            double gap = 1 - used - free;
+            int r = (int) (used * Color.RED.getRed() + free * Color.GREEN.getRed() + gap * GAP.getRed());
+            int g = (int) (used * Color.RED.getGreen() + free * Color.GREEN.getGreen() + gap * GAP.getGreen());
+            int b = (int) (used * Color.RED.getBlue() + free * Color.GREEN.getBlue() + gap * GAP.getBlue());
+            return r << 16 | g << 8 | b;
+        }
+
+        // First block ending after address when the list is in address order, else the first block
+        private int firstBlockFrom(double address) {
+            if (!sorted) {
+                return manager.blocks.first();
+            }
+            int position = positionFrom(address);
+            return position < manager.blockCount() ? manager.blockAt(position) : BlockTable.NIL;
+        }
+
+        // List position of the first block ending after address, by binary search over the sorted list
+        private int positionFrom(double address) {
+            BlockTable blocks = manager.blocks;
+            int low = 0;
+            int high = manager.blockCount();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int block = manager.blockAt(middle);
+                if (blocks.start[block] + blocks.size[block] > address) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
             }
+            return low;
+        }
+
+        private void moveView() {
+            viewStart = Math.max(0, Math.min(viewStart, extent - viewSpan));
+            markAllDirty();
+        }
+
+        private double addressAt(int y) {
+            return viewStart + (y - MARGIN) * viewSpan / rows();
+        }
+
+        private int rows() {
+            return Math.max(getHeight() - 2 * MARGIN, 1);
+        }
+    }
+
+    // Table models read straight from the manager; rowsChanged reports rows added or dropped at the
+    // end and rows from firstRow on as updated, so the table only repaints what is on screen
+    abstract class LiveTableModel extends javax.swing.table.AbstractTableModel {
+        private final String[] columns;
+        private int shownRows;
+
+        LiveTableModel(String... columns) {
+            this.columns = columns;
         }
 
-        private void allocateMemory(MemoryBlock block, Job job) {
-            if (block.size > job.size) {
-                memoryBlocks.add(memoryBlocks.indexOf(block) + 1,
-                        new MemoryBlock(block.start + job.size, block.size - job.size, true));
+        abstract int rows();
+
+        @Override
+        public int getRowCount() {
+            if (manager == null) {
+                return 0;
+            }
+            synchronized (manager) {
+                return rows();
             }
-            block.size = job.size;
-            block.isFree = false;
-            job.isAllocated = true;
-            job.memoryBlock = block; // Link job to its memory block
         }
 
-        public void resetMemory() {
-            memoryBlocks.clear();
+        @Override
+        public int getColumnCount() {
+            return columns.length;
         }
 
-        public void resetJobs() {
-            jobs.clear();
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
         }
 
-        public void clearAll() {
-            resetMemory();
-            resetJobs();
+        void rowsChanged(int firstRow) {
+            int rows = getRowCount();
+            if (rows < shownRows) {
+                fireTableRowsDeleted(rows, shownRows - 1);
+            } else if (rows > shownRows) {
+                fireTableRowsInserted(shownRows, rows - 1);
+            }
+            int kept = Math.min(rows, shownRows);
+            shownRows = rows;
+            if (firstRow < kept) {
+                fireTableRowsUpdated(firstRow, kept - 1);
+            }
         }
     }
 
-    class MemoryBlock {
-        int start;
-        int size;
-        boolean isFree;
+    class BlockTableModel extends LiveTableModel {
+        BlockTableModel() {
+            super("Start", "Size", "Free");
+        }
 
-        public MemoryBlock(int start, int size, boolean isFree) {
-            this.start = start;
-            this.size = size;
-            this.isFree = isFree;
+        @Override
+        int rows() {
+            return manager.blockCount();
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            synchronized (manager) {
+                if (row >= manager.blockCount()) {
+                    return ""; // An allocation still running has changed the table since it was laid out
+                }
+                int block = manager.blockAt(row);
+                switch (column) {
+                    case 0:
+                        return manager.blocks.start[block];
+                    case 1:
+                        return manager.blocks.size[block];
+                    default:
+                        return manager.blocks.free[block] ? "Yes" : "No";
+                }
+            }
         }
     }
 
-    class Job {
-        int id;
-        int size;
-        boolean isAllocated;
-        MemoryBlock memoryBlock; // Reference to the allocated memory block
+    class JobTableModel extends LiveTableModel {
+        JobTableModel() {
+            super("ID", "Size", "Allocated");
+        }
 
-        public Job(int id, int size) {
-            this.id = id;
-            this.size = size;
-            this.isAllocated = false;
+        @Override
+        int rows() {
+            return manager.jobs.size();
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            synchronized (manager) {
+                Job job = manager.jobs.get(row);
+                switch (column) {
+                    case 0:
+                        return job.id;
+                    case 1:
+                        return job.size;
+                    default:
+                        return job.isAllocated ? "Yes" : "No";
+                }
+            }
         }
     }
 
-    class MemoryPanel extends JPanel {
+    // One row per strategy that has been called, in FitStrategy order, read from AllocatorStats
+    class StatsTableModel extends LiveTableModel {
+        StatsTableModel() {
+            super("Strategy", "Calls", "Failed", "Avg Examined", "p99 Examined", "Avg ns", "p99 ns");
+        }
+
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            drawMemoryBlocks(g);
-        }
-
-        private void drawMemoryBlocks(Graphics g) {
-            int y = 10;
-            int totalMemoryHeight = 500;  // Total height allocated for memory visualization
-            int memoryScale = totalMemoryHeight / manager.totalSize;
-
-            for (MemoryBlock block : manager.memoryBlocks) {
-                int blockHeight = block.size * memoryScale;
-                if (block.isFree) {
-                    g.setColor(Color.GREEN);
-                    g.fillRect(10, y, 100, blockHeight);
-                    g.setColor(Color.BLACK);
-                    g.drawRect(10, y, 100, blockHeight);
-                    g.drawString("Start: " + block.start + ", Size: " + block.size, 120, y + blockHeight / 2);
-                } else {
-                    g.setColor(Color.RED);
-                    g.fillRect(10, y, 100, blockHeight);
-                    g.setColor(Color.BLACK);
-                    g.drawRect(10, y, 100, blockHeight);
-                    g.drawString("Job ID: " + block.start + ", Size: " + block.size, 120, y + blockHeight / 2);
+        int rows() {
+            int rows = 0;
+            for (FitStrategy strategy : FitStrategy.values()) {
+                if (manager.stats().calls(strategy) > 0) {
+                    rows++;
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            synchronized (manager) {
+                AllocatorStats stats = manager.stats();
+                FitStrategy strategy = null;
+                int row = -1;
+                for (FitStrategy candidate : FitStrategy.values()) {
+                    if (stats.calls(candidate) > 0 && ++row == rowIndex) {
+                        strategy = candidate;
+                        break;
+                    }
+                }
+                if (strategy == null) {
+                    return null;
+                }
+                switch (columnIndex) {
+                    case 0:
+                        return strategy;
+                    case 1:
+                        return stats.calls(strategy);
+                    case 2:
+                        return stats.failures(strategy);
+                    case 3:
+                        return String.format("%.1f", stats.meanExamined(strategy));
+                    case 4:
+                        return stats.examinedQuantile(strategy, 0.99);
+                    case 5:
+                        return String.format("%.0f", stats.meanLatencyNanos(strategy));
+                    default:
+                        return stats.latencyQuantileNanos(strategy, 0.99);
                 }
-                y += blockHeight + 10;
             }
         }
     }
+
+    class StatsPanel extends JPanel {
+        private final StatsTableModel model = new StatsTableModel();
+        private final JLabel summary = new JLabel();
+
+        StatsPanel() {
+            setLayout(new BorderLayout());
+            JTable table = new JTable(model);
+            JScrollPane scrollPane = new JScrollPane(table);
+            scrollPane.setPreferredSize(new Dimension(460, 140));
+            add(scrollPane, BorderLayout.CENTER);
+            add(summary, BorderLayout.SOUTH);
+        }
+
+        void refresh() {
+            synchronized (manager) {
+                fill();
+            }
+        }
+
+        private void fill() {
+            AllocatorStats stats = manager.stats();
+            model.rowsChanged(0);
+            summary.setText(String.format("<html>External fragmentation: %.1f%%<br>Largest free block: %d<br>"
+                            + "Internal fragmentation: %d<br>Failed allocations: %d<br>Units moved by compaction: %d</html>",
+                    manager.externalFragmentation() * 100, manager.largestFreeBlock(),
+                    manager.internalFragmentation(), stats.totalFailures(), manager.compactor().unitsMoved()));
+        }
+    }
 }
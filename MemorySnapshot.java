@@ -0,0 +1,181 @@
+package com.example.memorymanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Checkpoint of a MemoryManager in one little-endian file: the magic "MSNP" and a version, a header
+//   totalSize lastAllocatedIndex blockCount jobCount buddyFree slabFree   (free counts are -1 when
+//                                                                          that allocator is unused)
+// then column after column, ints first so they stay aligned:
+//   start[blockCount] size[blockCount]                     blocks in list order
+//   id[jobCount] size[jobCount] position[jobCount]         position of the job's block, -1 if unallocated
+//   buddy[buddyFree] slab[slabFree]                        positions on the free lists, in list order
+//   free[blockCount] buddyOrder[blockCount] slabClass[blockCount]   one byte each
+// Blocks are referred to by list position. A restored manager hands out handles equal to those
+// positions, so holders of old handles can translate them with positionOf before writing.
+// Reading maps the file and copies each column in bulk, then builds the index in linear time.
+public final class MemorySnapshot {
+    static final int MAGIC = 0x4D534E50;
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 8;
+
+    private MemorySnapshot() {
+    }
+
+    public static void write(MemoryManager manager, Path path) throws IOException {
+        BlockTable blocks = manager.blocks;
+        int blockCount = blocks.count();
+        int[] positionOf = new int[blocks.capacity()];
+        int position = 0;
+        for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+            positionOf[block] = position++;
+        }
+        List<Integer> buddyFree = manager.buddyAllocator() == null ? null : manager.buddyAllocator().freeChunks();
+        int[] slabFree = manager.slabAllocator() == null ? null : manager.slabAllocator().freeObjects();
+        List<Job> jobs = manager.jobs;
+        long ints = HEADER_INTS + 2L * blockCount + 3L * jobs.size()
+                + (buddyFree == null ? 0 : buddyFree.size()) + (slabFree == null ? 0 : slabFree.length);
+        long length = ints * 4 + 3L * blockCount;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + length + " bytes is too large for one mapping");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer out = buffer.asIntBuffer();
+            out.put(MAGIC).put(VERSION).put(manager.totalSize).put(manager.lastAllocatedIndex)
+                    .put(blockCount).put(jobs.size())
+                    .put(buddyFree == null ? -1 : buddyFree.size()).put(slabFree == null ? -1 : slabFree.length);
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                out.put(blocks.start[block]);
+            }
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                out.put(blocks.size[block]);
+            }
+            for (Job job : jobs) {
+                out.put(job.id);
+            }
+            for (Job job : jobs) {
+                out.put(job.size);
+            }
+            for (Job job : jobs) {
+                out.put(job.isAllocated ? positionOf[job.memoryBlock] : -1);
+            }
+            if (buddyFree != null) {
+                for (int block : buddyFree) {
+                    out.put(positionOf[block]);
+                }
+            }
+            if (slabFree != null) {
+                for (int block : slabFree) {
+                    out.put(positionOf[block]);
+                }
+            }
+            buffer.position((int) (ints * 4));
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                buffer.put((byte) (blocks.free[block] ? 1 : 0));
+            }
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                buffer.put(blocks.buddyOrder[block]);
+            }
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                buffer.put(blocks.slabClass[block]);
+            }
+            buffer.force();
+        }
+    }
+
+    public static MemoryManager read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_INTS * 4 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not a memory snapshot");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer in = buffer.asIntBuffer();
+            if (in.get() != MAGIC) {
+                throw new IOException(path + " is not a memory snapshot");
+            }
+            int version = in.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int totalSize = in.get();
+            int lastAllocatedIndex = in.get();
+            int blockCount = in.get();
+            int jobCount = in.get();
+            int buddyFree = in.get();
+            int slabFree = in.get();
+            long ints = HEADER_INTS + 2L * blockCount + 3L * jobCount + Math.max(buddyFree, 0) + Math.max(slabFree, 0);
+            if (blockCount < 0 || jobCount < 0 || ints * 4 + 3L * blockCount != channel.size()) {
+                throw new IOException(path + " is truncated or corrupt");
+            }
+
+            int[] starts = column(in, blockCount);
+            int[] sizes = column(in, blockCount);
+            int[] ids = column(in, jobCount);
+            int[] jobSizes = column(in, jobCount);
+            int[] jobBlocks = column(in, jobCount);
+            int[] buddyChunks = column(in, Math.max(buddyFree, 0));
+            int[] slabObjects = column(in, Math.max(slabFree, 0));
+            byte[] free = new byte[blockCount];
+            byte[] buddyOrders = new byte[blockCount];
+            byte[] slabClasses = new byte[blockCount];
+            buffer.position((int) (ints * 4));
+            buffer.get(free).get(buddyOrders).get(slabClasses);
+
+            // A fresh table hands out handles 0, 1, 2, ..., so every handle equals its list position
+            MemoryManager manager = new MemoryManager(totalSize);
+            BlockTable blocks = manager.blocks;
+            blocks.ensureCapacity(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                int block = blocks.create(starts[i], sizes[i], free[i] != 0);
+                blocks.buddyOrder[block] = buddyOrders[i];
+                blocks.slabClass[block] = slabClasses[i];
+                blocks.linkAfter(blocks.last(), block);
+            }
+            for (int i = 0; i < jobCount; i++) {
+                Job job = new Job(ids[i], jobSizes[i]);
+                if (jobBlocks[i] >= 0) {
+                    job.isAllocated = true;
+                    job.memoryBlock = jobBlocks[i];
+                }
+                manager.jobs.add(job);
+            }
+            manager.lastAllocatedIndex = lastAllocatedIndex;
+            BuddyAllocator buddy = null;
+            if (buddyFree >= 0) {
+                buddy = new BuddyAllocator(manager);
+                for (int block : buddyChunks) {
+                    buddy.restore(block);
+                }
+            }
+            SlabAllocator slabs = null;
+            if (slabFree >= 0) {
+                slabs = new SlabAllocator(manager);
+                for (int block : slabObjects) {
+                    slabs.restore(block);
+                }
+            }
+            manager.restored(buddy, slabs);
+            return manager;
+        }
+    }
+
+    private static int[] column(IntBuffer in, int length) {
+        int[] values = new int[length];
+        in.get(values);
+        return values;
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Command-line front end for MultiCoreEngine: runs one policy over the same jobs on 1 to maxCores
+// cores under each load-balancing mode and shows how the makespan shrinks as cores are added, with
+// how busy each core was on the largest machine. The core counts of a mode run in parallel on a
+// fork-join pool. Generated jobs arrive fast enough to keep maxCores cores about 90% busy.
+//
+// Usage: MultiCoreBatch <jobs.csv|jobCount> [policy] [maxCores] [GLOBAL|PER_CORE|WORK_STEALING|all]
+//                       [migrationCost] [timeSlice] [seed]
+public class MultiCoreBatch {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: MultiCoreBatch <jobs.csv|jobCount> [policy] [maxCores] "
+                    + "[GLOBAL|PER_CORE|WORK_STEALING|all] [migrationCost] [timeSlice] [seed]");
+            System.exit(2);
+        }
+        String policy = args.length > 1 ? args[1] : "RR";
+        int maxCores = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        LoadBalancing[] modes = args.length > 3 && !args[3].equals("all")
+                ? new LoadBalancing[]{LoadBalancing.valueOf(args[3])} : LoadBalancing.values();
+        int migrationCost = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        int timeSlice = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+        List<Job> jobs = args[0].matches("\\d+")
+                ? SchedulerBatch.generate(Integer.parseInt(args[0]), seed, 11.0 / maxCores) : SchedulerBatch.read(Paths.get(args[0]));
+        if (jobs.isEmpty()) {
+            System.err.println("No jobs to schedule");
+            System.exit(1);
+        }
+        SchedulingPolicy.of(policy, timeSlice); // Fails here rather than inside the pool
+
+        ForkJoinPool pool = new ForkJoinPool();
+        System.out.printf("%,d jobs, %s, migration cost %d, %d threads%n", jobs.size(), policy, migrationCost, pool.getParallelism());
+        for (LoadBalancing mode : modes) {
+            long begin = System.nanoTime();
+            List<MultiCoreEngine> engines = MultiCoreEngine.scale(jobs,
+                    () -> SchedulingPolicy.of(policy, timeSlice), mode, migrationCost, maxCores, pool);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            System.out.printf("%n%s (%.2f s)%n", mode, seconds);
+            System.out.printf("%6s %12s %8s %12s %12s %12s %12s %12s %12s%n", "cores", "makespan", "speedup",
+                    "turnaround", "waiting", "response", "migrations", "steals", "utilization");
+            int baseline = engines.get(0).makespan();
+            for (MultiCoreEngine engine : engines) {
+                double turnaround = 0;
+                double waiting = 0;
+                double response = 0;
+                for (Job job : engine.finished()) {
+                    turnaround += job.turnaroundTime;
+                    waiting += job.turnaroundTime - job.burstTime;
+                    response += job.startTime - job.arrivalTime;
+                }
+                double utilization = 0;
+                for (int core = 0; core < engine.coreCount(); core++) {
+                    utilization += engine.utilization(core);
+                }
+                int count = engine.finished().size();
+                System.out.printf("%6d %,12d %7.2fx %12.2f %12.2f %12.2f %,12d %,12d %11.1f%%%n", engine.coreCount(),
+                        engine.makespan(), (double) baseline / engine.makespan(), turnaround / count, waiting / count,
+                        response / count, engine.migrations(), engine.steals(), 100 * utilization / engine.coreCount());
+            }
+            MultiCoreEngine largest = engines.get(engines.size() - 1);
+            StringBuilder perCore = new StringBuilder("per-core utilization at " + largest.coreCount() + " cores:");
+            for (int core = 0; core < largest.coreCount(); core++) {
+                perCore.append(String.format(" %.1f%%", 100 * largest.utilization(core)));
+            }
+            System.out.println(perCore);
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,485 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// SchedulerEngine for several identical cores. With a global queue every core takes its next job from
+// one shared policy. Otherwise each core has a policy of its own and every job is placed, on arrival,
+// on the core with the least work still queued for it if each core ran its jobs back to back; with
+// per-core queues the job never leaves that core, while with work stealing a core with nothing to do
+// takes the best job from the longest queue. A job resumed on a different core than the one it last
+// ran on first spends migrationCost time units there without progressing.
+//
+// Per-core queues make the cores independent, so each runs as its own SchedulerEngine on the pool.
+// The other two modes are one discrete-event simulation over all cores, like SchedulerEngine's: at
+// each instant idle cores are filled first, then cores whose job has made progress since it was
+// dispatched are checked for preemption, then their timers are set. With a global queue the waiting
+// job displaces the running job the policy ranks worst, not whichever core comes first, and jobs
+// displaced at an instant rejoin the queue only after it, so they cannot displace another core's job
+// in turn. Waiting out the migration before a job can be preempted again keeps jobs from bouncing
+// between cores without ever running. On one core every mode schedules exactly as SchedulerEngine does.
+public class MultiCoreEngine {
+    static final int MAX_CORES = 1 << 10;
+    private static final int CORE_BITS = 10;
+    private static final int TOKEN_MASK = EventCalendar.TARGET_MASK >>> CORE_BITS;
+
+    // A policy and how many jobs are waiting in it; under GLOBAL every core holds the same one
+    static class RunQueue {
+        final SchedulingPolicy policy;
+        int size;
+
+        RunQueue(SchedulingPolicy policy) {
+            this.policy = policy;
+        }
+    }
+
+    static class Core {
+        final int id;
+        final RunQueue queue;
+        Job running;
+        int dispatchedAt;
+        int runningSince;   // dispatchedAt plus any migration cost
+        int token;          // Dispatch number, to recognise completions and expiries of earlier runs
+        int dueAt;          // Time and type of the completion or expiry the current run is waiting for
+        int dueType;
+        int timerAt;
+        long busyTime;
+        long migrationTime;
+        long dispatches;
+        long migrations;
+        long steals;
+        long preemptions;
+
+        Core(int id, RunQueue queue) {
+            this.id = id;
+            this.queue = queue;
+        }
+    }
+
+    private final LoadBalancing balancing;
+    private final int migrationCost;
+    private final Core[] cores;
+    private final EventCalendar calendar = new EventCalendar();
+    private final Job[] displaced;  // Jobs preempted under GLOBAL at the current instant
+    private final List<Job> finished = new ArrayList<>();
+    private ForkJoinPool pool;
+    private Job[] byArrival;
+    private int[] placement;
+    private int nextArrival;
+    private int currentTime;
+    private int makespan;
+
+    // policies makes one fresh policy per run queue
+    public MultiCoreEngine(Supplier<SchedulingPolicy> policies, int coreCount, LoadBalancing balancing, int migrationCost) {
+        if (coreCount < 1 || coreCount > MAX_CORES) {
+            throw new IllegalArgumentException("Core count must be between 1 and " + MAX_CORES);
+        }
+        if (migrationCost < 0) {
+            throw new IllegalArgumentException("Migration cost cannot be negative");
+        }
+        this.balancing = balancing;
+        this.migrationCost = migrationCost;
+        cores = new Core[coreCount];
+        displaced = new Job[coreCount];
+        RunQueue shared = balancing == LoadBalancing.GLOBAL ? new RunQueue(policies.get()) : null;
+        for (int i = 0; i < coreCount; i++) {
+            cores[i] = new Core(i, shared != null ? shared : new RunQueue(policies.get()));
+        }
+    }
+
+    // Pool that runs per-core queues in parallel; without one they run one after another
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Runs every job to completion, filling in its start, finish and turnaround times
+    public void run(List<Job> jobs) {
+        byArrival = jobs.toArray(new Job[0]);
+        Arrays.sort(byArrival, (a, b) -> Integer.compare(a.arrivalTime, b.arrivalTime)); // Stable, so input order breaks ties
+        for (Job job : byArrival) {
+            job.remainingTime = job.burstTime;
+            job.level = 0;
+            job.lastCore = -1;
+        }
+        placement = balancing == LoadBalancing.GLOBAL ? null : place(byArrival, cores.length);
+        finished.clear();
+        makespan = 0;
+        for (Core core : cores) {
+            core.queue.policy.clear();
+            core.queue.size = 0;
+            core.running = null;
+            core.token = 0;
+            core.busyTime = 0;
+            core.migrationTime = 0;
+            core.dispatches = 0;
+            core.migrations = 0;
+            core.steals = 0;
+            core.preemptions = 0;
+        }
+        if (balancing == LoadBalancing.PER_CORE) {
+            runPartitioned();
+        } else {
+            simulate();
+        }
+    }
+
+    // Core each job is placed on: the one whose queued work, run back to back, would end soonest
+    static int[] place(Job[] byArrival, int coreCount) {
+        long[] backlog = new long[coreCount];
+        int[] placement = new int[byArrival.length];
+        for (int i = 0; i < byArrival.length; i++) {
+            int best = 0;
+            for (int core = 1; core < coreCount; core++) {
+                if (backlog[core] < backlog[best]) {
+                    best = core;
+                }
+            }
+            backlog[best] = Math.max(backlog[best], byArrival[i].arrivalTime) + byArrival[i].burstTime;
+            placement[i] = best;
+        }
+        return placement;
+    }
+
+    private void runPartitioned() {
+        List<List<Job>> partitions = new ArrayList<>();
+        for (int i = 0; i < cores.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < byArrival.length; i++) {
+            partitions.get(placement[i]).add(byArrival[i]);
+        }
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (Core core : cores) {
+            List<Job> partition = partitions.get(core.id);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    SchedulerEngine engine = new SchedulerEngine(core.queue.policy);
+                    engine.run(partition);
+                    for (Job job : partition) {
+                        core.busyTime += job.burstTime;
+                        job.lastCore = core.id;
+                    }
+                    core.dispatches = engine.dispatches();
+                    core.preemptions = engine.preemptions();
+                }
+            });
+        }
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks);
+        } else if (pool != null) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } else {
+            for (RecursiveAction task : tasks) {
+                task.invoke();
+            }
+        }
+        for (Job job : byArrival) {
+            finished.add(job);
+            makespan = Math.max(makespan, job.finishTime);
+        }
+        finished.sort((a, b) -> Integer.compare(a.finishTime, b.finishTime));
+    }
+
+    private void simulate() {
+        calendar.clear();
+        nextArrival = 0;
+        currentTime = 0;
+        scheduleNextArrival();
+
+        while (!calendar.isEmpty()) {
+            long event = calendar.poll();
+            currentTime = EventCalendar.time(event);
+            int target = EventCalendar.target(event);
+            Core core = null;
+            int token = target >>> CORE_BITS;
+            if (EventCalendar.type(event) != EventCalendar.ARRIVAL) {
+                core = cores[target & (MAX_CORES - 1)];
+            }
+            switch (EventCalendar.type(event)) {
+                case EventCalendar.ARRIVAL:
+                    RunQueue queue = placement == null ? cores[0].queue : cores[placement[target]].queue;
+                    queue.policy.add(byArrival[target], currentTime);
+                    queue.size++;
+                    scheduleNextArrival();
+                    break;
+                case EventCalendar.COMPLETION:
+                    if (isDue(core, token, EventCalendar.COMPLETION)) {
+                        complete(core);
+                    }
+                    break;
+                case EventCalendar.EXPIRY:
+                    if (isDue(core, token, EventCalendar.EXPIRY)) {
+                        takeBack(core);
+                        core.queue.policy.expired(core.running, currentTime);
+                        core.queue.size++;
+                        core.running = null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // Decide only once everything happening at this instant has been seen
+            if (calendar.isEmpty() || calendar.nextTime() != currentTime) {
+                decide();
+            }
+        }
+    }
+
+    // Whether a completion or expiry belongs to the core's current run. Tokens wrap after TOKEN_MASK + 1
+    // dispatches while the events of preempted runs stay on the calendar until their time, so a stale
+    // event must also fall due when and as the current run does; one that does is indistinguishable
+    // from the current run's own and harmless.
+    private boolean isDue(Core core, int token, int type) {
+        return core.running != null && token == core.token && currentTime == core.dueAt && type == core.dueType;
+    }
+
+    private void decide() {
+        for (Core core : cores) {
+            if (core.running == null) {
+                dispatch(core);
+            }
+        }
+        if (balancing == LoadBalancing.GLOBAL) {
+            preemptWorst();
+        } else {
+            for (Core core : cores) {
+                Job running = core.running;
+                if (running != null && core.runningSince < currentTime && core.queue.size > 0
+                        && core.queue.policy.preempts(running, remaining(core), currentTime)) {
+                    takeBack(core);
+                    core.queue.policy.add(running, currentTime);
+                    core.queue.size++;
+                    core.running = null;
+                    core.preemptions++;
+                    dispatch(core);
+                }
+            }
+        }
+        for (Core core : cores) {
+            if (core.running != null && core.queue.size > 0) {
+                int wakeUp = core.queue.policy.wakeUp(core.running, remaining(core), currentTime);
+                if (wakeUp < core.timerAt || core.timerAt <= currentTime) {
+                    core.timerAt = wakeUp;
+                    calendar.add(wakeUp, EventCalendar.TIMER, core.id);
+                }
+            }
+        }
+    }
+
+    // Preempts the worst ranked running job for as long as the shared queue's best job would take its
+    // place. A core just dispatched is not considered again, so this ends after at most one round per core.
+    private void preemptWorst() {
+        RunQueue queue = cores[0].queue;
+        int count = 0;
+        while (queue.size > 0) {
+            Core worst = null;
+            long worstRank = 0;
+            for (Core core : cores) {
+                if (core.running != null && core.runningSince < currentTime) {
+                    long rank = queue.policy.rank(core.running, remaining(core), currentTime);
+                    if (worst == null || rank > worstRank) {
+                        worst = core;
+                        worstRank = rank;
+                    }
+                }
+            }
+            if (worst == null || !queue.policy.preempts(worst.running, remaining(worst), currentTime)) {
+                break;
+            }
+            takeBack(worst);
+            displaced[count++] = worst.running;
+            worst.running = null;
+            worst.preemptions++;
+            dispatch(worst);
+        }
+        for (int i = 0; i < count; i++) {
+            queue.policy.add(displaced[i], currentTime);
+            queue.size++;
+            displaced[i] = null;
+        }
+    }
+
+    private void scheduleNextArrival() {
+        if (nextArrival < byArrival.length) {
+            calendar.add(byArrival[nextArrival].arrivalTime, EventCalendar.ARRIVAL, nextArrival);
+            nextArrival++;
+        }
+    }
+
+    private void dispatch(Core core) {
+        RunQueue queue = core.queue;
+        if (queue.size == 0) {
+            if (balancing != LoadBalancing.WORK_STEALING) {
+                return;
+            }
+            RunQueue victim = null;
+            for (Core other : cores) {
+                if (other.queue.size > 0 && (victim == null || other.queue.size > victim.size)) {
+                    victim = other.queue;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            queue = victim;
+            core.steals++;
+        }
+        Job job = queue.policy.next(currentTime);
+        queue.size--;
+        if (job.remainingTime == job.burstTime) {
+            job.startTime = currentTime;
+        }
+        boolean migrated = job.lastCore >= 0 && job.lastCore != core.id;
+        if (migrated) {
+            core.migrations++;
+        }
+        job.lastCore = core.id;
+        job.dispatchTime = currentTime;
+        core.running = job;
+        core.dispatchedAt = currentTime;
+        core.runningSince = migrated ? currentTime + migrationCost : currentTime;
+        core.token = (core.token + 1) & TOKEN_MASK;
+        core.timerAt = Integer.MAX_VALUE;
+        core.dispatches++;
+        int target = core.token << CORE_BITS | core.id;
+        int quantum = queue.policy.quantum(job);
+        if (job.remainingTime > quantum) {
+            core.dueAt = core.runningSince + quantum;
+            core.dueType = EventCalendar.EXPIRY;
+        } else {
+            core.dueAt = core.runningSince + job.remainingTime;
+            core.dueType = EventCalendar.COMPLETION;
+        }
+        calendar.add(core.dueAt, core.dueType, target);
+    }
+
+    // Units the running job still needs; it makes no progress while it is being migrated
+    private int remaining(Core core) {
+        return core.running.remainingTime - Math.max(0, currentTime - core.runningSince);
+    }
+
+    // Takes the running job off its core unfinished; the caller hands it back to the core's queue
+    private void takeBack(Core core) {
+        core.running.remainingTime = remaining(core);
+        account(core);
+    }
+
+    private void complete(Core core) {
+        Job job = core.running;
+        job.remainingTime = 0;
+        job.finishTime = currentTime;
+        job.turnaroundTime = job.finishTime - job.arrivalTime;
+        job.weightedTurnaroundTime = (double) job.turnaroundTime / job.burstTime;
+        makespan = currentTime;
+        account(core);
+        finished.add(job);
+        core.running = null;
+    }
+
+    private void account(Core core) {
+        core.busyTime += Math.max(0, currentTime - core.runningSince);
+        core.migrationTime += Math.min(currentTime, core.runningSince) - core.dispatchedAt;
+    }
+
+    // Runs the same jobs on 1, 2, ... maxCores cores in parallel, each on its own copy of the jobs,
+    // and returns the engines in core-count order
+    public static List<MultiCoreEngine> scale(List<Job> jobs, Supplier<SchedulingPolicy> policies, LoadBalancing balancing,
+                                              int migrationCost, int maxCores, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<List<MultiCoreEngine>>() {
+            @Override
+            protected List<MultiCoreEngine> compute() {
+                List<RecursiveTask<MultiCoreEngine>> tasks = new ArrayList<>();
+                for (int coreCount = 1; coreCount <= maxCores; coreCount++) {
+                    int cores = coreCount;
+                    tasks.add(new RecursiveTask<MultiCoreEngine>() {
+                        @Override
+                        protected MultiCoreEngine compute() {
+                            List<Job> copies = new ArrayList<>(jobs.size());
+                            for (Job job : jobs) {
+                                copies.add(new Job(job));
+                            }
+                            MultiCoreEngine engine = new MultiCoreEngine(policies, cores, balancing, migrationCost);
+                            engine.run(copies);
+                            return engine;
+                        }
+                    });
+                }
+                ForkJoinTask.invokeAll(tasks);
+                List<MultiCoreEngine> engines = new ArrayList<>(tasks.size());
+                for (RecursiveTask<MultiCoreEngine> task : tasks) {
+                    engines.add(task.join());
+                }
+                return engines;
+            }
+        });
+    }
+
+    // Jobs in the order they finished
+    public List<Job> finished() {
+        return finished;
+    }
+
+    // Time the last job finished
+    public int makespan() {
+        return makespan;
+    }
+
+    public int coreCount() {
+        return cores.length;
+    }
+
+    public LoadBalancing balancing() {
+        return balancing;
+    }
+
+    // Share of the makespan the core spent running jobs, leaving out migrations
+    public double utilization(int core) {
+        return makespan == 0 ? 0 : (double) cores[core].busyTime / makespan;
+    }
+
+    public long migrationTime(int core) {
+        return cores[core].migrationTime;
+    }
+
+    public long dispatches() {
+        long total = 0;
+        for (Core core : cores) {
+            total += core.dispatches;
+        }
+        return total;
+    }
+
+    public long migrations() {
+        long total = 0;
+        for (Core core : cores) {
+            total += core.migrations;
+        }
+        return total;
+    }
+
+    public long steals() {
+        long total = 0;
+        for (Core core : cores) {
+            total += core.steals;
+        }
+        return total;
+    }
+
+    public long preemptions() {
+        long total = 0;
+        for (Core core : cores) {
+            total += core.preemptions;
+        }
+        return total;
+    }
+}
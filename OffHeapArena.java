@@ -0,0 +1,72 @@
+package com.example.memorymanager;
+
+import java.nio.ByteBuffer;
+
+// Backs a MemoryManager with real off-heap memory: one direct buffer covers the manager's address
+// space, and every placement made through the arena hands back the matching slice of it. Each
+// address unit of the manager stands for bytesPerUnit bytes.
+public class OffHeapArena {
+    private final MemoryManager manager;
+    private final int bytesPerUnit;
+    private final ByteBuffer memory;
+
+    public OffHeapArena(MemoryManager manager, int bytesPerUnit) {
+        long capacity = (long) manager.extent() * bytesPerUnit;
+        if (bytesPerUnit <= 0 || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Arena of " + capacity + " bytes cannot be mapped to one buffer");
+        }
+        this.manager = manager;
+        this.bytesPerUnit = bytesPerUnit;
+        this.memory = ByteBuffer.allocateDirect((int) capacity);
+    }
+
+    // Places the job with the given strategy and returns a writable view of its memory, or null if it did not fit
+    public ByteBuffer allocate(Job job, FitStrategy strategy) {
+        if (!manager.allocate(job, strategy)) {
+            return null;
+        }
+        return slice(job);
+    }
+
+    // The job's memory; slices handed out earlier must not be used after the job is freed
+    public ByteBuffer slice(Job job) {
+        if (!job.isAllocated) {
+            throw new IllegalStateException("Job " + job.id + " is not allocated");
+        }
+        long start = (long) manager.blocks.start[job.memoryBlock] * bytesPerUnit;
+        long length = (long) job.size * bytesPerUnit;
+        if (start + length > memory.capacity()) {
+            throw new IllegalStateException("Block at " + manager.blocks.start[job.memoryBlock] + " lies outside the arena");
+        }
+        return memory.slice((int) start, (int) length);
+    }
+
+    // Copies units from one address to a lower one, as compaction slides a block down
+    public void moveDown(int from, int to, int units) {
+        byte[] chunk = new byte[Math.min(units * bytesPerUnit, 1 << 16)];
+        long remaining = (long) units * bytesPerUnit;
+        long source = (long) from * bytesPerUnit;
+        long target = (long) to * bytesPerUnit;
+        while (remaining > 0) {
+            // Copying forwards in chunks is safe because the target lies below the source
+            int length = (int) Math.min(remaining, chunk.length);
+            memory.get((int) source, chunk, 0, length);
+            memory.put((int) target, chunk, 0, length);
+            source += length;
+            target += length;
+            remaining -= length;
+        }
+    }
+
+    public void free(Job job) {
+        manager.free(job);
+    }
+
+    public int capacity() {
+        return memory.capacity();
+    }
+
+    public int bytesPerUnit() {
+        return bytesPerUnit;
+    }
+}
@@ -0,0 +1,716 @@
+package com.example.memorymanager;
+
+import java.util.Arrays;
+
+// Paged virtual memory next to the contiguous MemoryManager: a fixed number of physical frames
+// shared by any number of processes, each with its own page table, and a tagged TLB in front.
+// A reference is a (pid, page) pair packed into a long by ReferenceString.key. Every replacement
+// policy keeps its bookkeeping in primitive arrays over frame numbers and does constant work per
+// access, except OPT, which keeps the resident pages in a heap ordered by next use.
+//
+// Usage: PagingSimulator [accesses] [frames] [tlbEntries] [processes] [pagesPerProcess]
+public class PagingSimulator {
+    static final int OPT_WINDOW = 1 << 18; // References OPT looks ahead
+    private static final int CHUNK = 4096;   // References generated ahead of each timed stretch
+
+    private final int frameCount;
+    private final ReplacementPolicy policy;
+    private final Replacer replacer;
+    private final Tlb tlb;
+    private final long[] frameKey;
+    private int[][] pageTables = new int[0][]; // Frame + 1 by pid and page, 0 when not resident
+    private int usedFrames;
+    private long accesses;
+    private long tlbHits;
+    private long faults;
+    private long elapsedNanos;
+    private final long[] chunk = new long[CHUNK];
+
+    public PagingSimulator(int frameCount, int tlbEntries, ReplacementPolicy policy) {
+        if (frameCount <= 0 || tlbEntries < 0) {
+            throw new IllegalArgumentException("Need at least one frame and a non-negative TLB size");
+        }
+        this.frameCount = frameCount;
+        this.policy = policy;
+        this.frameKey = new long[frameCount];
+        this.tlb = new Tlb(tlbEntries);
+        switch (policy) {
+            case FIFO:
+                replacer = new Fifo();
+                break;
+            case LRU:
+                replacer = new Lru();
+                break;
+            case CLOCK:
+                replacer = new Clock();
+                break;
+            case LFU:
+                replacer = new Lfu();
+                break;
+            case ARC:
+                replacer = new Arc();
+                break;
+            default:
+                replacer = new Opt();
+                break;
+        }
+    }
+
+    // Simulates one reference; returns true when the page was resident. OPT needs to see the
+    // references ahead, so it can only be driven through run.
+    public boolean access(int pid, int page) {
+        if (policy == ReplacementPolicy.OPT) {
+            throw new IllegalStateException("OPT needs the future references; use run");
+        }
+        return access(ReferenceString.key(pid, page));
+    }
+
+    // Streams count references through the simulator and adds the time taken to elapsedNanos. The
+    // references are generated a chunk at a time outside the timed stretches, so elapsedNanos is the
+    // cost of the policy alone. OPT takes the references of a run to be the whole string, so it must
+    // be given them in one run.
+    public void run(ReferenceString references, long count) {
+        if (replacer instanceof Opt) {
+            ((Opt) replacer).run(references, count);
+            return;
+        }
+        for (long done = 0; done < count; ) {
+            int n = fill(references, count - done);
+            long begin = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                access(chunk[i]);
+            }
+            elapsedNanos += System.nanoTime() - begin;
+            done += n;
+        }
+    }
+
+    // Generates up to CHUNK of the wanted references into chunk and returns how many
+    private int fill(ReferenceString references, long wanted) {
+        int n = (int) Math.min(CHUNK, wanted);
+        for (int i = 0; i < n; i++) {
+            chunk[i] = references.next();
+        }
+        return n;
+    }
+
+    private boolean access(long key) {
+        accesses++;
+        int frame = tlb.lookup(key);
+        if (frame >= 0) {
+            tlbHits++;
+            replacer.hit(frame);
+            return true;
+        }
+        frame = frameOf(key);
+        if (frame >= 0) {
+            replacer.hit(frame);
+            tlb.insert(key, frame);
+            return true;
+        }
+        faults++;
+        if (usedFrames < frameCount) {
+            frame = usedFrames++;
+        } else {
+            frame = replacer.victim(key);
+            long evicted = frameKey[frame];
+            pageTables[ReferenceString.pid(evicted)][ReferenceString.page(evicted)] = 0;
+            tlb.invalidate(evicted);
+            replacer.evicted(evicted);
+        }
+        frameKey[frame] = key;
+        mapPage(key, frame);
+        replacer.loaded(frame, key);
+        tlb.insert(key, frame);
+        return false;
+    }
+
+    // Frame holding the page, or -1 when it is not resident
+    int frameOf(long key) {
+        int pid = ReferenceString.pid(key);
+        int page = ReferenceString.page(key);
+        if (pid >= pageTables.length || pageTables[pid] == null || page >= pageTables[pid].length) {
+            return -1;
+        }
+        return pageTables[pid][page] - 1;
+    }
+
+    private void mapPage(long key, int frame) {
+        int pid = ReferenceString.pid(key);
+        int page = ReferenceString.page(key);
+        if (pid >= pageTables.length) {
+            pageTables = Arrays.copyOf(pageTables, Math.max(pid + 1, pageTables.length * 2));
+        }
+        if (pageTables[pid] == null) {
+            pageTables[pid] = new int[Math.max(page + 1, 64)];
+        } else if (page >= pageTables[pid].length) {
+            pageTables[pid] = Arrays.copyOf(pageTables[pid], Math.max(page + 1, pageTables[pid].length * 2));
+        }
+        pageTables[pid][page] = frame + 1;
+    }
+
+    public ReplacementPolicy policy() {
+        return policy;
+    }
+
+    public long accesses() {
+        return accesses;
+    }
+
+    public long faults() {
+        return faults;
+    }
+
+    public long tlbHits() {
+        return tlbHits;
+    }
+
+    public double hitRatio() {
+        return accesses == 0 ? 0 : 1 - (double) faults / accesses;
+    }
+
+    public double tlbHitRatio() {
+        return accesses == 0 ? 0 : (double) tlbHits / accesses;
+    }
+
+    public double nanosPerAccess() {
+        return accesses == 0 ? 0 : (double) elapsedNanos / accesses;
+    }
+
+    // Replacement policies are told about every hit and load, and pick a victim only once all
+    // frames are in use
+    private interface Replacer {
+        void hit(int frame);
+
+        void loaded(int frame, long key);
+
+        int victim(long key);
+
+        default void evicted(long key) {
+        }
+    }
+
+    // Frames fill in order and every replaced frame takes the newest page, so load order is a ring
+    private final class Fifo implements Replacer {
+        private int hand;
+
+        public void hit(int frame) {
+        }
+
+        public void loaded(int frame, long key) {
+        }
+
+        public int victim(long key) {
+            int frame = hand;
+            hand = (hand + 1) % frameCount;
+            return frame;
+        }
+    }
+
+    // Doubly linked recency list threaded through the frame numbers
+    private final class Lru implements Replacer {
+        private final NodeLists list = new NodeLists(frameCount, 1);
+
+        public void hit(int frame) {
+            list.remove(frame);
+            list.addFirst(0, frame);
+        }
+
+        public void loaded(int frame, long key) {
+            list.addFirst(0, frame);
+        }
+
+        public int victim(long key) {
+            int frame = list.last(0);
+            list.remove(frame);
+            return frame;
+        }
+    }
+
+    private final class Clock implements Replacer {
+        private final boolean[] referenced = new boolean[frameCount];
+        private int hand;
+
+        public void hit(int frame) {
+            referenced[frame] = true;
+        }
+
+        public void loaded(int frame, long key) {
+            referenced[frame] = true;
+        }
+
+        public int victim(long key) {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % frameCount;
+            }
+            int frame = hand;
+            hand = (hand + 1) % frameCount;
+            return frame;
+        }
+    }
+
+    // Constant-time LFU: frames sit in per-frequency lists, and the lists are chained in rising
+    // frequency order, so a hit moves a frame to the neighbouring list and the victim is the least
+    // recently used frame of the first list. A hit creates the next list before leaving the old one,
+    // so there is room for one list more than there are frames.
+    private final class Lfu implements Replacer {
+        private final NodeLists groups = new NodeLists(frameCount, frameCount + 1);
+        private final long[] frequency = new long[frameCount + 1];
+        private final int[] prevGroup = new int[frameCount + 1];
+        private final int[] nextGroup = new int[frameCount + 1];
+        private final int[] spareGroups = new int[frameCount + 1];
+        private int spareCount;
+        private int lowest = NodeLists.NONE;
+
+        Lfu() {
+            for (int i = frameCount; i >= 0; i--) {
+                spareGroups[spareCount++] = i;
+            }
+        }
+
+        public void hit(int frame) {
+            int group = groups.listOf(frame);
+            int next = nextGroup[group];
+            if (next == NodeLists.NONE || frequency[next] != frequency[group] + 1) {
+                next = newGroup(frequency[group] + 1, group);
+            }
+            remove(frame);
+            groups.addFirst(next, frame);
+        }
+
+        public void loaded(int frame, long key) {
+            int group = lowest;
+            if (group == NodeLists.NONE || frequency[group] != 1) {
+                group = newGroup(1, NodeLists.NONE);
+            }
+            groups.addFirst(group, frame);
+        }
+
+        public int victim(long key) {
+            int frame = groups.last(lowest);
+            remove(frame);
+            return frame;
+        }
+
+        private int newGroup(long count, int after) {
+            int group = spareGroups[--spareCount];
+            frequency[group] = count;
+            prevGroup[group] = after;
+            nextGroup[group] = after == NodeLists.NONE ? lowest : nextGroup[after];
+            if (nextGroup[group] != NodeLists.NONE) {
+                prevGroup[nextGroup[group]] = group;
+            }
+            if (after == NodeLists.NONE) {
+                lowest = group;
+            } else {
+                nextGroup[after] = group;
+            }
+            return group;
+        }
+
+        // Takes the frame out of its group, dropping the group once it is empty
+        private void remove(int frame) {
+            int group = groups.listOf(frame);
+            groups.remove(frame);
+            if (groups.size(group) > 0) {
+                return;
+            }
+            if (prevGroup[group] == NodeLists.NONE) {
+                lowest = nextGroup[group];
+            } else {
+                nextGroup[prevGroup[group]] = nextGroup[group];
+            }
+            if (nextGroup[group] != NodeLists.NONE) {
+                prevGroup[nextGroup[group]] = prevGroup[group];
+            }
+            spareGroups[spareCount++] = group;
+        }
+    }
+
+    // Adaptive Replacement Cache (Megiddo and Modha). T1 and T2 hold the resident pages seen once
+    // and more than once; B1 and B2 remember the keys recently evicted from each, and hits on those
+    // ghosts move the target size p of T1. Nodes 0..frames-1 are the frames themselves, the rest are
+    // ghosts, which are found by key through a LongMap.
+    private final class Arc implements Replacer {
+        private static final int T1 = 0;
+        private static final int T2 = 1;
+        private static final int B1 = 2;
+        private static final int B2 = 3;
+
+        private final NodeLists lists = new NodeLists(2 * frameCount, 4);
+        private final long[] ghostKey = new long[2 * frameCount];
+        private final LongMap ghosts = new LongMap(frameCount);
+        private final int[] spareGhosts = new int[frameCount];
+        private int spareCount;
+        private int target; // p
+        private boolean wasGhost;
+
+        Arc() {
+            for (int i = 0; i < frameCount; i++) {
+                spareGhosts[spareCount++] = 2 * frameCount - 1 - i;
+            }
+        }
+
+        public void hit(int frame) {
+            lists.remove(frame);
+            lists.addFirst(T2, frame);
+        }
+
+        public void loaded(int frame, long key) {
+            lists.addFirst(wasGhost ? T2 : T1, frame);
+            wasGhost = false;
+        }
+
+        public int victim(long key) {
+            int c = frameCount;
+            int ghost = (int) ghosts.get(key);
+            if (ghost >= 0) {
+                boolean inB2 = lists.listOf(ghost) == B2;
+                if (inB2) {
+                    target = Math.max(0, target - Math.max(lists.size(B1) / lists.size(B2), 1));
+                } else {
+                    target = Math.min(c, target + Math.max(lists.size(B2) / lists.size(B1), 1));
+                }
+                dropGhost(ghost);
+                wasGhost = true;
+                return replace(inB2);
+            }
+            if (lists.size(T1) + lists.size(B1) == c) {
+                if (lists.size(T1) < c) {
+                    dropGhost(lists.last(B1));
+                    return replace(false);
+                }
+                int frame = lists.last(T1);
+                lists.remove(frame);
+                return frame;
+            }
+            if (lists.size(T1) + lists.size(T2) + lists.size(B1) + lists.size(B2) == 2 * c) {
+                dropGhost(lists.last(B2));
+            }
+            return replace(false);
+        }
+
+        // Evicts from T1 or T2 depending on how T1 compares with its target, remembering the key
+        private int replace(boolean inB2) {
+            int t1 = lists.size(T1);
+            boolean fromT1 = t1 > 0 && (t1 > target || (inB2 && t1 == target));
+            int frame = lists.last(fromT1 ? T1 : T2);
+            lists.remove(frame);
+            int ghost = spareGhosts[--spareCount];
+            ghostKey[ghost] = frameKey[frame];
+            ghosts.put(ghostKey[ghost], ghost);
+            lists.addFirst(fromT1 ? B1 : B2, ghost);
+            return frame;
+        }
+
+        private void dropGhost(int ghost) {
+            lists.remove(ghost);
+            ghosts.remove(ghostKey[ghost]);
+            spareGhosts[spareCount++] = ghost;
+        }
+    }
+
+    // Belady's optimal policy over a lookahead window: the next use of every reference is known once
+    // that use has entered the window, and pages whose next use lies beyond it count as never used
+    // again. The window covers the whole string when it is no longer than OPT_WINDOW. References
+    // after the end of the run count as never made, which is only right if the run is the whole
+    // string, so a second run is refused rather than silently giving more faults than one run would.
+    private final class Opt implements Replacer {
+        private static final long NEVER = Long.MAX_VALUE;
+
+        private final long[] windowKeys = new long[OPT_WINDOW];
+        private final long[] nextUse = new long[OPT_WINDOW];
+        private final LongMap lastSeen = new LongMap(2 * frameCount); // Latest position of each key
+        private final FrameHeap heap = new FrameHeap(frameCount);
+        private long position = -1; // Position of the reference being simulated
+        private long currentNext;
+
+        void run(ReferenceString references, long count) {
+            if (position >= 0 && count > 0) {
+                throw new IllegalStateException("OPT must see the whole reference string in one run");
+            }
+            long filled = 0;
+            long window = Math.min(count, OPT_WINDOW);
+            while (filled < window) {
+                int n = fill(references, window - filled);
+                long begin = System.nanoTime();
+                for (int j = 0; j < n; j++) {
+                    offer(filled++, chunk[j]);
+                }
+                elapsedNanos += System.nanoTime() - begin;
+            }
+            // Each access is followed by the offer of the reference one window ahead, until none are left
+            for (long i = 0; i < count; ) {
+                int n = fill(references, count - filled);
+                int steps = n > 0 ? n : (int) Math.min(CHUNK, count - i);
+                long begin = System.nanoTime();
+                for (int j = 0; j < steps; j++, i++) {
+                    position = i;
+                    int slot = (int) (i % OPT_WINDOW);
+                    currentNext = nextUse[slot];
+                    access(windowKeys[slot]);
+                    if (j < n) {
+                        offer(filled++, chunk[j]);
+                    }
+                }
+                elapsedNanos += System.nanoTime() - begin;
+            }
+        }
+
+        // Adds the reference at position to the window, telling its previous occurrence when it recurs
+        private void offer(long at, long key) {
+            long previous = lastSeen.get(key);
+            if (previous >= 0) {
+                if (previous > position) {
+                    nextUse[(int) (previous % OPT_WINDOW)] = at;
+                } else {
+                    int frame = frameOf(key);
+                    if (frame >= 0) {
+                        heap.update(frame, at);
+                    }
+                }
+            }
+            lastSeen.put(key, at);
+            int slot = (int) (at % OPT_WINDOW);
+            windowKeys[slot] = key;
+            nextUse[slot] = NEVER;
+        }
+
+        public void hit(int frame) {
+            heap.update(frame, currentNext);
+        }
+
+        public void loaded(int frame, long key) {
+            heap.add(frame, currentNext);
+        }
+
+        public int victim(long key) {
+            return heap.poll();
+        }
+
+        public void evicted(long key) {
+            if (lastSeen.get(key) < position) {
+                lastSeen.remove(key); // Not referenced again within the window
+            }
+        }
+    }
+
+    // Recently used TLB entries first; entries are tagged with the pid, so switching processes
+    // needs no flush, and evicting a page shoots down its entry
+    private static final class Tlb {
+        private final int capacity;
+        private final LongMap slots;
+        private final NodeLists order;
+        private final long[] keys;
+        private final int[] frames;
+        private final int[] spareSlots;
+        private int spareCount;
+
+        Tlb(int capacity) {
+            this.capacity = capacity;
+            this.slots = new LongMap(capacity);
+            this.order = new NodeLists(capacity, 1);
+            this.keys = new long[capacity];
+            this.frames = new int[capacity];
+            this.spareSlots = new int[capacity];
+            for (int i = 0; i < capacity; i++) {
+                spareSlots[spareCount++] = i;
+            }
+        }
+
+        int lookup(long key) {
+            if (capacity == 0) {
+                return -1;
+            }
+            int slot = (int) slots.get(key);
+            if (slot < 0) {
+                return -1;
+            }
+            order.remove(slot);
+            order.addFirst(0, slot);
+            return frames[slot];
+        }
+
+        void insert(long key, int frame) {
+            if (capacity == 0) {
+                return;
+            }
+            int slot;
+            if (spareCount > 0) {
+                slot = spareSlots[--spareCount];
+            } else {
+                slot = order.last(0);
+                order.remove(slot);
+                slots.remove(keys[slot]);
+            }
+            keys[slot] = key;
+            frames[slot] = frame;
+            slots.put(key, slot);
+            order.addFirst(0, slot);
+        }
+
+        void invalidate(long key) {
+            if (capacity == 0) {
+                return;
+            }
+            int slot = (int) slots.get(key);
+            if (slot >= 0) {
+                slots.remove(key);
+                order.remove(slot);
+                spareSlots[spareCount++] = slot;
+            }
+        }
+    }
+
+    // Any number of intrusive doubly linked lists over the ints 0..nodes-1; a node is in one list at a time
+    static final class NodeLists {
+        static final int NONE = -1;
+
+        private final int[] prev;
+        private final int[] next;
+        private final int[] listOf;
+        private final int[] head;
+        private final int[] tail;
+        private final int[] size;
+
+        NodeLists(int nodes, int lists) {
+            prev = new int[nodes];
+            next = new int[nodes];
+            listOf = new int[nodes];
+            head = new int[lists];
+            tail = new int[lists];
+            size = new int[lists];
+            Arrays.fill(head, NONE);
+            Arrays.fill(tail, NONE);
+        }
+
+        void addFirst(int list, int node) {
+            listOf[node] = list;
+            prev[node] = NONE;
+            next[node] = head[list];
+            if (head[list] != NONE) {
+                prev[head[list]] = node;
+            } else {
+                tail[list] = node;
+            }
+            head[list] = node;
+            size[list]++;
+        }
+
+        void remove(int node) {
+            int list = listOf[node];
+            if (prev[node] != NONE) {
+                next[prev[node]] = next[node];
+            } else {
+                head[list] = next[node];
+            }
+            if (next[node] != NONE) {
+                prev[next[node]] = prev[node];
+            } else {
+                tail[list] = prev[node];
+            }
+            size[list]--;
+        }
+
+        int last(int list) {
+            return tail[list];
+        }
+
+        int size(int list) {
+            return size[list];
+        }
+
+        int listOf(int node) {
+            return listOf[node];
+        }
+    }
+
+    // Indexed max-heap of frames by next use, so OPT can change a frame's key in place
+    private static final class FrameHeap {
+        private final int[] heap;
+        private final int[] indexOf;
+        private final long[] key;
+        private int size;
+
+        FrameHeap(int capacity) {
+            heap = new int[capacity];
+            indexOf = new int[capacity];
+            key = new long[capacity];
+        }
+
+        void add(int frame, long value) {
+            key[frame] = value;
+            heap[size] = frame;
+            indexOf[frame] = size;
+            siftUp(size++);
+        }
+
+        void update(int frame, long value) {
+            long old = key[frame];
+            key[frame] = value;
+            if (value > old) {
+                siftUp(indexOf[frame]);
+            } else {
+                siftDown(indexOf[frame]);
+            }
+        }
+
+        int poll() {
+            int top = heap[0];
+            heap[0] = heap[--size];
+            indexOf[heap[0]] = 0;
+            siftDown(0);
+            return top;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0 && key[heap[(i - 1) / 2]] < key[heap[i]]) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                if (left < size && key[heap[left]] > key[heap[largest]]) {
+                    largest = left;
+                }
+                if (left + 1 < size && key[heap[left + 1]] > key[heap[largest]]) {
+                    largest = left + 1;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int frame = heap[a];
+            heap[a] = heap[b];
+            heap[b] = frame;
+            indexOf[heap[a]] = a;
+            indexOf[heap[b]] = b;
+        }
+    }
+
+    public static void main(String[] args) {
+        long accesses = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int tlbEntries = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int processes = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int pages = args.length > 4 ? Integer.parseInt(args[4]) : 4096;
+
+        System.out.printf("%-6s %14s %14s %10s %10s %10s%n", "policy", "accesses", "faults", "hit %", "TLB hit %", "ns/access");
+        for (ReplacementPolicy policy : ReplacementPolicy.values()) {
+            PagingSimulator simulator = new PagingSimulator(frames, tlbEntries, policy);
+            simulator.run(new ReferenceString(42, processes, pages), accesses);
+            System.out.printf("%-6s %,14d %,14d %10.3f %10.3f %10.1f%n", policy, simulator.accesses(), simulator.faults(),
+                    simulator.hitRatio() * 100, simulator.tlbHitRatio() * 100, simulator.nanosPerAccess());
+        }
+    }
+}
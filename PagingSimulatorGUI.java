@@ -0,0 +1,175 @@
+package com.example.memorymanager;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+// Front end for PagingSimulator: runs every replacement policy over the same seeded reference
+// string and lists hit ratios and timings side by side. Runs happen on a worker thread, one row
+// appearing as each policy finishes.
+public class PagingSimulatorGUI extends JFrame {
+    private JTextField framesField;
+    private JTextField tlbField;
+    private JTextField processesField;
+    private JTextField pagesField;
+    private JTextField accessesField;
+    private JTextField seedField;
+    private JButton runButton;
+    private JLabel statusLabel;
+    private final List<PagingSimulator> results = new ArrayList<>();
+    private ResultTableModel resultTableModel;
+
+    public PagingSimulatorGUI() {
+        setTitle("Paging Simulation");
+        setSize(800, 400);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        framesField = new JTextField("1024", 8);
+        tlbField = new JTextField("64", 8);
+        processesField = new JTextField("8", 8);
+        pagesField = new JTextField("4096", 8);
+        accessesField = new JTextField("1000000", 10);
+        seedField = new JTextField("42", 8);
+        runButton = new JButton("Run All Policies");
+        statusLabel = new JLabel(" ");
+
+        JPanel inputPanel = new JPanel(new GridLayout(2, 6));
+        inputPanel.add(new JLabel("Frames:"));
+        inputPanel.add(framesField);
+        inputPanel.add(new JLabel("TLB Entries:"));
+        inputPanel.add(tlbField);
+        inputPanel.add(new JLabel("Processes:"));
+        inputPanel.add(processesField);
+        inputPanel.add(new JLabel("Pages per Process:"));
+        inputPanel.add(pagesField);
+        inputPanel.add(new JLabel("Accesses:"));
+        inputPanel.add(accessesField);
+        inputPanel.add(new JLabel("Seed:"));
+        inputPanel.add(seedField);
+
+        JPanel controlPanel = new JPanel(new BorderLayout());
+        controlPanel.add(inputPanel, BorderLayout.CENTER);
+        controlPanel.add(runButton, BorderLayout.EAST);
+
+        resultTableModel = new ResultTableModel();
+        add(controlPanel, BorderLayout.NORTH);
+        add(new JScrollPane(new JTable(resultTableModel)), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        runButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                runAll();
+            }
+        });
+
+        setVisible(true);
+    }
+
+    private void runAll() {
+        final int frames;
+        final int tlbEntries;
+        final int processes;
+        final int pages;
+        final long accesses;
+        final long seed;
+        try {
+            frames = Integer.parseInt(framesField.getText().trim());
+            tlbEntries = Integer.parseInt(tlbField.getText().trim());
+            processes = Integer.parseInt(processesField.getText().trim());
+            pages = Integer.parseInt(pagesField.getText().trim());
+            accesses = Long.parseLong(accessesField.getText().trim());
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException ex) {
+            statusLabel.setText("Every field needs a whole number");
+            return;
+        }
+        results.clear();
+        resultTableModel.fireTableDataChanged();
+        runButton.setEnabled(false);
+        new SwingWorker<Void, PagingSimulator>() {
+            @Override
+            protected Void doInBackground() {
+                for (ReplacementPolicy policy : ReplacementPolicy.values()) {
+                    PagingSimulator simulator = new PagingSimulator(frames, tlbEntries, policy);
+                    simulator.run(new ReferenceString(seed, processes, pages), accesses);
+                    publish(simulator);
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<PagingSimulator> finished) {
+                for (PagingSimulator simulator : finished) {
+                    results.add(simulator);
+                    resultTableModel.fireTableRowsInserted(results.size() - 1, results.size() - 1);
+                    statusLabel.setText(simulator.policy() + " done");
+                }
+            }
+
+            @Override
+            protected void done() {
+                runButton.setEnabled(true);
+                try {
+                    get();
+                    statusLabel.setText("Done");
+                } catch (Exception ex) {
+                    statusLabel.setText("Run failed: " + ex.getCause());
+                }
+            }
+        }.execute();
+        statusLabel.setText("Running...");
+    }
+
+    class ResultTableModel extends AbstractTableModel {
+        private final String[] columns = {"Policy", "Accesses", "Page Faults", "Hit %", "TLB Hit %", "ns/access"};
+
+        @Override
+        public int getRowCount() {
+            return results.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PagingSimulator simulator = results.get(row);
+            switch (column) {
+                case 0:
+                    return simulator.policy();
+                case 1:
+                    return simulator.accesses();
+                case 2:
+                    return simulator.faults();
+                case 3:
+                    return String.format("%.3f", simulator.hitRatio() * 100);
+                case 4:
+                    return String.format("%.3f", simulator.tlbHitRatio() * 100);
+                default:
+                    return String.format("%.1f", simulator.nanosPerAccess());
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new PagingSimulatorGUI();
+            }
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.memorymanager;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+// Benchmark harness for the placement strategies. For every block count from 10 to 10^6, job size
+// distribution and alloc/free mix it builds a steady-state layout, warms up, then times a series of
+// measurement rounds and prints ops/s and heap bytes allocated per operation.
+//
+// Usage: PlacementBenchmark [maxBlocks] [measureMillis] [STRATEGY,STRATEGY,...]
+public class PlacementBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURE_ROUNDS = 3;
+    private static final int BATCH = 1024; // Operations between clock reads
+
+    // Free block sizes of the initial layout; StrategyComparison lays the same sizes out back to back
+    static final WorkloadGenerator.Distribution BLOCK_SIZES = WorkloadGenerator.Distribution.uniform(64, 1087);
+
+    enum SizeDistribution {
+        SMALL(WorkloadGenerator.Distribution.uniform(10, 60), 35),   // Like generateJobs
+        WIDE(WorkloadGenerator.Distribution.uniform(1, 1000), 500.5),
+        BIMODAL(WorkloadGenerator.Distribution.bimodal(8, 16, 500, 1000, 0.1), 85.8); // Mostly small, occasionally large
+
+        final WorkloadGenerator.Distribution distribution;
+        final double mean;
+
+        SizeDistribution(WorkloadGenerator.Distribution distribution, double mean) {
+            this.distribution = distribution;
+            this.mean = mean;
+        }
+
+        int next(SplittableRandom random) {
+            return distribution.sample(random);
+        }
+    }
+
+    enum Mix {
+        BALANCED(50, 0.5),    // Allocate and free equally often
+        ALLOC_HEAVY(75, 1.5); // Mostly allocate, so the pool runs near full
+
+        final int allocPercent;
+        final double load; // Units asked to be live at once, as a fraction of the pool, in generated workloads
+
+        Mix(int allocPercent, double load) {
+            this.allocPercent = allocPercent;
+            this.load = load;
+        }
+
+        // Lifetimes that keep about load * poolSize units requested at once
+        WorkloadGenerator.Distribution lifetimes(long poolSize, SizeDistribution sizes) {
+            return WorkloadGenerator.Distribution.exponential(Math.max(1, load * poolSize / sizes.mean));
+        }
+    }
+
+    private final MemoryManager manager;
+    private final FitStrategy strategy;
+    private final SizeDistribution sizes;
+    private final Mix mix;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final Job[] jobs;
+    private final int[] live;      // Indexes into jobs of the allocated ones
+    private final int[] idle;      // Indexes into jobs of the unallocated ones
+    private int liveCount;
+    private int idleCount;
+
+    PlacementBenchmark(int blockCount, FitStrategy strategy, SizeDistribution sizes, Mix mix) {
+        this.strategy = strategy;
+        this.sizes = sizes;
+        this.mix = mix;
+        // Blocks are separated by one unit so that frees never coalesce the initial layout away
+        manager = new MemoryManager(0);
+        new WorkloadGenerator(7).layout(new TraceReplay(manager, strategy), blockCount, BLOCK_SIZES,
+                WorkloadGenerator.Distribution.uniform(1, 1));
+        int pool = Math.max(16, blockCount * 2);
+        jobs = new Job[pool];
+        live = new int[pool];
+        idle = new int[pool];
+        for (int i = 0; i < pool; i++) {
+            jobs[i] = new Job(i, 0);
+            idle[idleCount++] = i;
+        }
+    }
+
+    private void operation() {
+        boolean allocate = idleCount > 0 && (liveCount == 0 || random.nextInt(100) < mix.allocPercent);
+        if (allocate) {
+            int slot = random.nextInt(idleCount);
+            Job job = jobs[idle[slot]];
+            job.size = sizes.next(random);
+            if (manager.allocate(job, strategy)) {
+                idle[slot] = idle[--idleCount];
+                live[liveCount++] = job.id;
+            } else if (liveCount > 0) {
+                free(random.nextInt(liveCount));
+            }
+        } else {
+            free(random.nextInt(liveCount));
+        }
+    }
+
+    private void free(int slot) {
+        Job job = jobs[live[slot]];
+        manager.free(job);
+        live[slot] = live[--liveCount];
+        idle[idleCount++] = job.id;
+    }
+
+    // Returns {ops per second, bytes allocated per op}
+    private double[] round(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long bytesBefore = allocatedBytes();
+        long begin = System.nanoTime();
+        long ops = 0;
+        long now;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                operation();
+            }
+            ops += BATCH;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long bytes = allocatedBytes() - bytesBefore;
+        return new double[]{ops / ((now - begin) / 1e9), (double) bytes / ops};
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void main(String[] args) {
+        int maxBlocks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long measureMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        FitStrategy[] strategies = FitStrategy.values();
+        if (args.length > 2) {
+            String[] names = args[2].split(",");
+            strategies = new FitStrategy[names.length];
+            for (int i = 0; i < names.length; i++) {
+                strategies[i] = FitStrategy.valueOf(names[i]);
+            }
+        }
+
+        System.out.printf("%-9s %-8s %-12s %-15s %14s %10s%n", "blocks", "sizes", "mix", "strategy", "ops/s", "B/op");
+        for (int blocks = 10; blocks <= maxBlocks; blocks *= 10) {
+            for (SizeDistribution sizes : SizeDistribution.values()) {
+                for (Mix mix : Mix.values()) {
+                    for (FitStrategy strategy : strategies) {
+                        PlacementBenchmark benchmark = new PlacementBenchmark(blocks, strategy, sizes, mix);
+                        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                            benchmark.round(measureMillis);
+                        }
+                        double opsPerSecond = 0;
+                        double bytesPerOp = 0;
+                        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                            double[] result = benchmark.round(measureMillis);
+                            opsPerSecond += result[0] / MEASURE_ROUNDS;
+                            bytesPerOp += result[1] / MEASURE_ROUNDS;
+                        }
+                        System.out.printf("%-9d %-8s %-12s %-15s %,14.0f %10.1f%n",
+                                blocks, sizes, mix, strategy, opsPerSecond, bytesPerOp);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,32 +1,17 @@
+import com.example.memorymanager.WorkloadGenerator;
+
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.*;
 import java.util.List;
 
-class Process {
-    String name;
-    int arrivalTime;
-    int burstTime;
-    int priority;
-    int remainingTime;
-    int startTime;
-    int endTime;
-
-    public Process(String name, int arrivalTime, int burstTime, int priority) {
-        this.name = name;
-        this.arrivalTime = arrivalTime;
-        this.burstTime = burstTime;
-        this.priority = priority;
-        this.remainingTime = burstTime;
-    }
-}
-
 public class ProcessScheduler extends JFrame {
-    private List<Process> processes;
-    private DefaultTableModel readyQueueModel;
-    private DefaultTableModel resultTableModel;
+    private static final int RR_QUANTUM = 2;   // Also the quantum of the top MLFQ level
+    private List<Job> processes;
+    private ReadyQueueModel readyQueueModel;
+    private ResultTableModel resultTableModel;
     private JTextArea outputArea;
     private JTextField nameField;
     private JTextField arrivalTimeField;
@@ -35,8 +20,9 @@ public class ProcessScheduler extends JFrame {
     private JComboBox<String> algorithmComboBox;
     private JButton addButton;
     private JButton clearButton;
+    private JButton generateButton;
     private JButton simulateButton;
-    private int currentTime;
+    private long nextSeed = 1; // Generated processes repeat from run to run
 
     public ProcessScheduler() {
         processes = new ArrayList<>();
@@ -48,7 +34,7 @@ public class ProcessScheduler extends JFrame {
         arrivalTimeField = new JTextField(5);
         burstTimeField = new JTextField(5);
         priorityComboBox = new JComboBox<>(new String[]{"1", "2", "3", "4", "5"});
-        algorithmComboBox = new JComboBox<>(new String[]{"FCFS", "SJF", "RR"});
+        algorithmComboBox = new JComboBox<>(SchedulingPolicy.NAMES);
 
         addButton = new JButton("Add Process");
         addButton.addActionListener(this::addProcess);
@@ -57,6 +43,9 @@ public class ProcessScheduler extends JFrame {
         clearButton = new JButton("Clear Inputs");
         clearButton.addActionListener(e -> clearInputs());
 
+        generateButton = new JButton("Generate");
+        generateButton.addActionListener(e -> generateProcesses());
+
         simulateButton = new JButton("Simulate");
         simulateButton.addActionListener(e -> simulateAlgorithm());
 
@@ -75,17 +64,18 @@ public class ProcessScheduler extends JFrame {
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(addButton);
         buttonPanel.add(clearButton);
+        buttonPanel.add(generateButton);
         buttonPanel.add(simulateButton);
 
         JPanel controlPanel = new JPanel(new BorderLayout());
         controlPanel.add(inputPanel, BorderLayout.CENTER);
         controlPanel.add(buttonPanel, BorderLayout.SOUTH);
 
-        readyQueueModel = new DefaultTableModel(new String[]{"Name", "Arrival Time", "Burst Time", "Priority", "Remaining Time"}, 0);
+        readyQueueModel = new ReadyQueueModel();
         JTable readyQueueTable = new JTable(readyQueueModel);
         JScrollPane readyQueueScrollPane = new JScrollPane(readyQueueTable);
 
-        resultTableModel = new DefaultTableModel(new String[]{"Name", "Start Time", "End Time", "Turnaround Time", "Weighted Turnaround Time"}, 0);
+        resultTableModel = new ResultTableModel();
         JTable resultTable = new JTable(resultTableModel);
         JScrollPane resultTableScrollPane = new JScrollPane(resultTable);
 
@@ -117,15 +107,26 @@ public class ProcessScheduler extends JFrame {
         int burstTime = Integer.parseInt(burstTimeField.getText());
         int priority = Integer.parseInt((String) priorityComboBox.getSelectedItem());
 
-        Process process = new Process(name, arrivalTime, burstTime, priority);
+        Job process = new Job(name, arrivalTime, burstTime, priority);
         processes.add(process);
 
-        readyQueueModel.addRow(new Object[]{name, arrivalTime, burstTime, priority, burstTime});
+        readyQueueModel.processAdded(process);
 
         clearInputs();
         checkInputs();
     }
 
+    // Adds ten seeded processes: arrivals 0..3 apart, bursts of 1..10 and priorities 1..5
+    private void generateProcesses() {
+        WorkloadGenerator.Arrivals arrivals = new WorkloadGenerator(nextSeed++).arrivals(
+                WorkloadGenerator.Distribution.uniform(0, 3), WorkloadGenerator.Distribution.uniform(1, 10), 5);
+        for (int i = 0; i < 10 && arrivals.next(); i++) {
+            Job process = new Job("P" + (processes.size() + 1), arrivals.arrivalTime, arrivals.burstTime, arrivals.priority);
+            processes.add(process);
+            readyQueueModel.processAdded(process);
+        }
+    }
+
     private void clearInputs() {
         nameField.setText("");
         arrivalTimeField.setText("");
@@ -135,96 +136,25 @@ public class ProcessScheduler extends JFrame {
 
     private void simulateAlgorithm() {
         String selectedAlgorithm = (String) algorithmComboBox.getSelectedItem();
-        if (selectedAlgorithm.equals("FCFS")) {
-            simulateFCFS();
-        } else if (selectedAlgorithm.equals("SJF")) {
-            simulateSJF();
-        } else if (selectedAlgorithm.equals("RR")) {
-            simulateRR(2);
-        }
-    }
-
-    private void simulateFCFS() {
-        outputArea.setText("Simulating FCFS...\n");
-        List<Process> fcfsProcesses = new ArrayList<>(processes);
-        fcfsProcesses.sort(Comparator.comparingInt(p -> p.arrivalTime));
-        simulate(fcfsProcesses);
-    }
-
-    private void simulateSJF() {
-        outputArea.setText("Simulating SJF...\n");
-        List<Process> sjfProcesses = new ArrayList<>(processes);
-        sjfProcesses.sort(Comparator.comparingInt(p -> p.burstTime));
-        simulate(sjfProcesses);
-    }
-
-    private void simulateRR(int quantum) {
-        outputArea.setText("Simulating RR...\n");
-        List<Process> rrProcesses = new ArrayList<>(processes);
-        Queue<Process> queue = new LinkedList<>(rrProcesses);
-        currentTime = 0;
-
-        while (!queue.isEmpty()) {
-            Process current = queue.poll();
-            if (current.remainingTime > quantum) {
-                if (currentTime < current.arrivalTime) {
-                    currentTime = current.arrivalTime;
-                }
-                current.startTime = currentTime;
-                currentTime += quantum;
-                current.remainingTime -= quantum;
-                queue.offer(current);
-            } else {
-                if (currentTime < current.arrivalTime) {
-                    currentTime = current.arrivalTime;
-                }
-                current.startTime = currentTime;
-                currentTime += current.remainingTime;
-                current.remainingTime = 0;
-                current.endTime = currentTime;
-                outputArea.append("Process " + current.name + " finished at time " + current.endTime + "\n");
-            }
-            updateReadyQueue();
-        }
-        calculateAndDisplayStatistics();
-    }
-
-    private void simulate(List<Process> processList) {
-        currentTime = 0;
-
-        for (Process process : processList) {
-            if (currentTime < process.arrivalTime) {
-                currentTime = process.arrivalTime;
-            }
-            process.startTime = currentTime;
-            currentTime += process.burstTime;
-            process.endTime = currentTime;
-            outputArea.append("Process " + process.name + " finished at time " + process.endTime + "\n");
-            updateReadyQueue();
+        outputArea.setText("Simulating " + selectedAlgorithm + "...\n");
+        SchedulerEngine engine = new SchedulerEngine(SchedulingPolicy.of(selectedAlgorithm, RR_QUANTUM));
+        engine.run(processes);
+        for (Job process : engine.finished()) {
+            outputArea.append("Process " + process.name + " finished at time " + process.finishTime + "\n");
         }
+        readyQueueModel.fireTableDataChanged();
         calculateAndDisplayStatistics();
     }
 
-    private void updateReadyQueue() {
-        readyQueueModel.setRowCount(0);
-        for (Process process : processes) {
-            readyQueueModel.addRow(new Object[]{process.name, process.arrivalTime, process.burstTime, process.priority, process.remainingTime});
-        }
-    }
-
     private void calculateAndDisplayStatistics() {
         double totalTurnaroundTime = 0;
         double totalWeightedTurnaroundTime = 0;
 
-        resultTableModel.setRowCount(0);
-
-        for (Process process : processes) {
-            int turnaroundTime = process.endTime - process.arrivalTime;
-            totalTurnaroundTime += turnaroundTime;
-            double weightedTurnaroundTime = (double) turnaroundTime / process.burstTime;
-            totalWeightedTurnaroundTime += weightedTurnaroundTime;
-            resultTableModel.addRow(new Object[]{process.name, process.startTime, process.endTime, turnaroundTime, weightedTurnaroundTime});
+        for (Job process : processes) {
+            totalTurnaroundTime += process.turnaroundTime;
+            totalWeightedTurnaroundTime += process.weightedTurnaroundTime;
         }
+        resultTableModel.showResults(processes.size());
 
         double avgTurnaroundTime = totalTurnaroundTime / processes.size();
         double avgWeightedTurnaroundTime = totalWeightedTurnaroundTime / processes.size();
@@ -237,6 +167,56 @@ public class ProcessScheduler extends JFrame {
         addButton.setEnabled(!nameField.getText().trim().isEmpty() && !arrivalTimeField.getText().trim().isEmpty() && !burstTimeField.getText().trim().isEmpty() && priorityComboBox.getSelectedIndex() != -1);
     }
 
+    // Shows the processes as they are; a simulation repaints the whole table once it is done
+    private class ReadyQueueModel extends AbstractTableModel {
+        private final String[] columns = {"Name", "Arrival Time", "Burst Time", "Priority", "Remaining Time"};
+
+        void processAdded(Job process) {
+            fireTableRowsInserted(processes.size() - 1, processes.size() - 1);
+        }
+
+        public int getRowCount() { return processes.size(); }
+        public int getColumnCount() { return columns.length; }
+        public String getColumnName(int column) { return columns[column]; }
+
+        public Object getValueAt(int row, int column) {
+            Job process = processes.get(row);
+            switch (column) {
+                case 0: return process.name;
+                case 1: return process.arrivalTime;
+                case 2: return process.burstTime;
+                case 3: return process.priority;
+                default: return process.remainingTime;
+            }
+        }
+    }
+
+    // Results of the last simulation, computed from the processes when a row is drawn
+    private class ResultTableModel extends AbstractTableModel {
+        private final String[] columns = {"Name", "Start Time", "End Time", "Turnaround Time", "Weighted Turnaround Time"};
+        private int rowCount;
+
+        void showResults(int count) {
+            rowCount = count;
+            fireTableDataChanged();
+        }
+
+        public int getRowCount() { return rowCount; }
+        public int getColumnCount() { return columns.length; }
+        public String getColumnName(int column) { return columns[column]; }
+
+        public Object getValueAt(int row, int column) {
+            Job process = processes.get(row);
+            switch (column) {
+                case 0: return process.name;
+                case 1: return process.startTime;
+                case 2: return process.finishTime;
+                case 3: return process.turnaroundTime;
+                default: return process.weightedTurnaroundTime;
+            }
+        }
+    }
+
     private class InputChangeListener implements javax.swing.event.DocumentListener {
         public void insertUpdate(javax.swing.event.DocumentEvent e) { checkInputs(); }
         public void removeUpdate(javax.swing.event.DocumentEvent e) { checkInputs(); }
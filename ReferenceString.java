@@ -0,0 +1,59 @@
+package com.example.memorymanager;
+
+import java.util.SplittableRandom;
+
+// Lazily generated page-reference string with locality of reference. Processes take turns for a
+// slice of references each; a process mostly touches a small working set of neighbouring pages that
+// drifts now and then, with the odd reference anywhere in its address space. The same seed always
+// gives the same string, so every policy can be run against identical references.
+public class ReferenceString {
+    private static final int SLICE = 1000;     // References per process turn
+    private static final int WORKING_SET = 64; // Pages in a process's working set
+    private static final int LOCALITY = 90;    // Percent of references inside the working set
+    private static final int DRIFT = 500;      // One reference in this many moves the working set
+
+    private final SplittableRandom random;
+    private final int pages;
+    private final int[] workingSet; // First page of each process's working set
+    private int pid;
+    private int sliceLeft = SLICE;
+
+    public ReferenceString(long seed, int processes, int pagesPerProcess) {
+        if (processes <= 0 || pagesPerProcess <= 0) {
+            throw new IllegalArgumentException("Need at least one process and one page");
+        }
+        this.random = new SplittableRandom(seed);
+        this.pages = pagesPerProcess;
+        this.workingSet = new int[processes];
+        for (int i = 0; i < processes; i++) {
+            workingSet[i] = random.nextInt(pagesPerProcess);
+        }
+    }
+
+    // The next reference, packed by key
+    public long next() {
+        if (--sliceLeft == 0) {
+            sliceLeft = SLICE;
+            pid = random.nextInt(workingSet.length);
+        }
+        if (random.nextInt(DRIFT) == 0) {
+            workingSet[pid] = random.nextInt(pages);
+        }
+        int page = random.nextInt(100) < LOCALITY
+                ? (workingSet[pid] + random.nextInt(WORKING_SET)) % pages
+                : random.nextInt(pages);
+        return key(pid, page);
+    }
+
+    static long key(int pid, int page) {
+        return (long) pid << 32 | page;
+    }
+
+    static int pid(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int page(long key) {
+        return (int) key;
+    }
+}
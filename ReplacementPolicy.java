@@ -0,0 +1,21 @@
+package com.example.memorymanager;
+
+enum ReplacementPolicy {
+    FIFO("FIFO"),
+    LRU("LRU"),
+    CLOCK("Clock"),
+    LFU("LFU"),
+    ARC("ARC"),
+    OPT("OPT");
+
+    final String label;
+
+    ReplacementPolicy(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,111 @@
+import com.example.memorymanager.WorkloadGenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Command-line front end for SchedulerEngine, for running schedules on machines without a display.
+// Jobs come from a CSV file of name,arrivalTime,burstTime,priority lines (a header line is skipped)
+// or are generated from a seed. Every policy asked for runs over the same jobs and gets one summary
+// line; with an output file, per-job results of every run are written there as CSV.
+//
+// Usage: SchedulerBatch <jobs.csv|jobCount> [policy,...|all] [timeSlice] [seed] [results.csv]
+public class SchedulerBatch {
+    public static List<Job> read(Path path) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    jobs.add(new Job(fields[0].trim(), Integer.parseInt(fields[1].trim()),
+                            Integer.parseInt(fields[2].trim()), fields.length > 3 ? Integer.parseInt(fields[3].trim()) : 0));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    if (lineNumber > 1) {
+                        throw new IOException(path + ":" + lineNumber + ": expected name,arrivalTime,burstTime,priority");
+                    }
+                }
+            }
+        }
+        return jobs;
+    }
+
+    // Bursts average 10 and arrivals 11 apart, so the CPU is busy about 90% of the time
+    public static List<Job> generate(int count, long seed) {
+        return generate(count, seed, 11);
+    }
+
+    // Bursts average 10; a mean gap of 10 / n keeps n CPUs busy
+    public static List<Job> generate(int count, long seed, double meanGap) {
+        WorkloadGenerator.Arrivals arrivals = new WorkloadGenerator(seed).arrivals(
+                WorkloadGenerator.Distribution.exponential(meanGap), WorkloadGenerator.Distribution.exponential(10), 5);
+        List<Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count && arrivals.next(); i++) {
+            jobs.add(new Job("J" + i, arrivals.arrivalTime, arrivals.burstTime, arrivals.priority));
+        }
+        return jobs;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SchedulerBatch <jobs.csv|jobCount> [policy,...|all] [timeSlice] [seed] [results.csv]");
+            System.exit(2);
+        }
+        List<String> policies = args.length > 1 && !args[1].equals("all")
+                ? Arrays.asList(args[1].split(",")) : Arrays.asList(SchedulingPolicy.NAMES);
+        int timeSlice = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        List<Job> jobs = args[0].matches("\\d+") ? generate(Integer.parseInt(args[0]), seed) : read(Paths.get(args[0]));
+        if (jobs.isEmpty()) {
+            System.err.println("No jobs to schedule");
+            System.exit(1);
+        }
+
+        PrintWriter results = args.length > 4 ? new PrintWriter(Files.newBufferedWriter(Paths.get(args[4]))) : null;
+        if (results != null) {
+            results.println("policy,name,arrivalTime,burstTime,priority,startTime,finishTime,turnaroundTime,weightedTurnaroundTime");
+        }
+        System.out.printf("%-20s %10s %12s %12s %12s %12s %12s %12s%n", "policy", "jobs", "makespan",
+                "turnaround", "weighted", "waiting", "response", "jobs/s");
+        for (String name : policies) {
+            SchedulerEngine engine = new SchedulerEngine(SchedulingPolicy.of(name, timeSlice));
+            long begin = System.nanoTime();
+            engine.run(jobs);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            double turnaround = 0;
+            double weighted = 0;
+            double waiting = 0;
+            double response = 0;
+            for (Job job : jobs) {
+                turnaround += job.turnaroundTime;
+                weighted += job.weightedTurnaroundTime;
+                waiting += job.turnaroundTime - job.burstTime;
+                response += job.startTime - job.arrivalTime;
+            }
+            int count = jobs.size();
+            System.out.printf("%-20s %,10d %,12d %12.2f %12.3f %12.2f %12.2f %,12.0f%n", name, count, engine.makespan(),
+                    turnaround / count, weighted / count, waiting / count, response / count, count / seconds);
+            if (results != null) {
+                for (Job job : engine.finished()) {
+                    results.printf("%s,%s,%d,%d,%d,%d,%d,%d,%.4f%n", name, job.name, job.arrivalTime, job.burstTime,
+                            job.priority, job.startTime, job.finishTime, job.turnaroundTime, job.weightedTurnaroundTime);
+                }
+            }
+        }
+        if (results != null) {
+            results.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Headless scheduling core behind SchedulerSimulation, ProcessScheduler and SchedulerBatch. It is a
+// discrete-event simulation: instead of advancing one time unit per tick, it jumps straight to the
+// next arrival, completion or quantum expiry, so a run costs time in the number of scheduling
+// decisions rather than in simulated time units. Only the next arrival is on the calendar at any
+// moment, so the calendar stays a few entries long however many jobs there are.
+//
+// A job is only eligible once it has arrived. The SchedulingPolicy decides which ready job runs and
+// for how long; a job taken back at the end of its quantum is queued again behind jobs that arrived
+// at the same instant. Once everything at an instant has been seen the policy may preempt the running
+// job. Completions and expiries carry the number of the dispatch they belong to, so those of a
+// preempted run are recognised and dropped when they come up instead of being searched for.
+public class SchedulerEngine {
+    // One stretch of CPU time given to a job, for replaying a run
+    static class Slice {
+        final Job job;
+        final int start;
+        final int end;
+
+        Slice(Job job, int start, int end) {
+            this.job = job;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final SchedulingPolicy policy;
+    private final EventCalendar calendar = new EventCalendar();
+    private final List<Job> finished = new ArrayList<>();
+    private final List<Slice> slices = new ArrayList<>();
+    private boolean recordSlices;
+    private Job[] byArrival;
+    private int nextArrival;
+    private Job running;
+    private int runningSince;
+    private int runToken;
+    private int timerAt;
+    private int currentTime;
+    private int makespan;
+    private long dispatches;
+    private long preemptions;
+
+    public SchedulerEngine(SchedulingPolicy policy) {
+        this.policy = policy;
+    }
+
+    // Keeps every slice of CPU time for replay; off by default, since long runs produce millions
+    public void setRecordSlices(boolean recordSlices) {
+        this.recordSlices = recordSlices;
+    }
+
+    // Runs every job to completion, filling in its start, finish and turnaround times
+    public void run(List<Job> jobs) {
+        byArrival = jobs.toArray(new Job[0]);
+        Arrays.sort(byArrival, (a, b) -> Integer.compare(a.arrivalTime, b.arrivalTime)); // Stable, so input order breaks ties
+        for (Job job : byArrival) {
+            job.remainingTime = job.burstTime;
+            job.level = 0;
+        }
+        calendar.clear();
+        policy.clear();
+        finished.clear();
+        slices.clear();
+        nextArrival = 0;
+        running = null;
+        runToken = 0;
+        currentTime = 0;
+        makespan = 0;
+        dispatches = 0;
+        preemptions = 0;
+        scheduleNextArrival();
+
+        while (!calendar.isEmpty()) {
+            long event = calendar.poll();
+            currentTime = EventCalendar.time(event);
+            int target = EventCalendar.target(event);
+            switch (EventCalendar.type(event)) {
+                case EventCalendar.ARRIVAL:
+                    policy.add(byArrival[target], currentTime);
+                    scheduleNextArrival();
+                    break;
+                case EventCalendar.COMPLETION:
+                    if (running != null && target == runToken) {
+                        complete();
+                    }
+                    break;
+                case EventCalendar.EXPIRY:
+                    if (running != null && target == runToken) {
+                        takeBack();
+                        policy.expired(running, currentTime);
+                        running = null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // Decide only once everything happening at this instant has been seen
+            if (calendar.isEmpty() || calendar.nextTime() != currentTime) {
+                decide();
+            }
+        }
+    }
+
+    private void decide() {
+        if (running != null && !policy.isEmpty()
+                && policy.preempts(running, running.remainingTime - (currentTime - runningSince), currentTime)) {
+            takeBack();
+            policy.add(running, currentTime);
+            running = null;
+            preemptions++;
+        }
+        if (running == null && !policy.isEmpty()) {
+            dispatch();
+        }
+        if (running != null && !policy.isEmpty()) {
+            int wakeUp = policy.wakeUp(running, running.remainingTime - (currentTime - runningSince), currentTime);
+            if (wakeUp < timerAt || timerAt <= currentTime) {
+                timerAt = wakeUp;
+                calendar.add(wakeUp, EventCalendar.TIMER, runToken);
+            }
+        }
+    }
+
+    private void scheduleNextArrival() {
+        if (nextArrival < byArrival.length) {
+            calendar.add(byArrival[nextArrival].arrivalTime, EventCalendar.ARRIVAL, nextArrival);
+            nextArrival++;
+        }
+    }
+
+    private void dispatch() {
+        Job job = policy.next(currentTime);
+        if (job.remainingTime == job.burstTime) {
+            job.startTime = currentTime;
+        }
+        job.dispatchTime = currentTime;
+        running = job;
+        runningSince = currentTime;
+        runToken = (runToken + 1) & EventCalendar.TARGET_MASK;
+        timerAt = Integer.MAX_VALUE;
+        dispatches++;
+        int quantum = policy.quantum(job);
+        if (job.remainingTime > quantum) {
+            calendar.add(currentTime + quantum, EventCalendar.EXPIRY, runToken);
+        } else {
+            calendar.add(currentTime + job.remainingTime, EventCalendar.COMPLETION, runToken);
+        }
+    }
+
+    // Takes the running job off the CPU unfinished; the caller hands it back to the policy
+    private void takeBack() {
+        running.remainingTime -= currentTime - runningSince;
+        endSlice();
+    }
+
+    private void complete() {
+        Job job = running;
+        job.remainingTime = 0;
+        job.finishTime = currentTime;
+        job.turnaroundTime = job.finishTime - job.arrivalTime;
+        job.weightedTurnaroundTime = (double) job.turnaroundTime / job.burstTime;
+        makespan = currentTime;
+        endSlice();
+        finished.add(job);
+        running = null;
+    }
+
+    private void endSlice() {
+        if (recordSlices) {
+            slices.add(new Slice(running, runningSince, currentTime));
+        }
+    }
+
+    // Jobs in the order they finished
+    public List<Job> finished() {
+        return finished;
+    }
+
+    public List<Slice> slices() {
+        return slices;
+    }
+
+    // Time the last job finished, which a leftover timer event may come after
+    public int makespan() {
+        return makespan;
+    }
+
+    public long dispatches() {
+        return dispatches;
+    }
+
+    // Times a running job gave way to a ready one before its quantum was up
+    public long preemptions() {
+        return preemptions;
+    }
+
+    public SchedulingPolicy policy() {
+        return policy;
+    }
+}
@@ -1,47 +1,33 @@
+import com.example.memorymanager.WorkloadGenerator;
+
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
-class Job {
-    String name;
-    int arrivalTime;
-    int burstTime;
-    int priority;
-    int startTime;
-    int finishTime;
-    int remainingTime;
-    int turnaroundTime;
-    double weightedTurnaroundTime;
-
-    public Job(String name, int arrivalTime, int burstTime, int priority) {
-        this.name = name;
-        this.arrivalTime = arrivalTime;
-        this.burstTime = burstTime;
-        this.priority = priority;
-        this.remainingTime = burstTime;
-    }
-}
-
 public class SchedulerSimulation extends JFrame {
-    private JTextField nameField, arrivalField, burstField, priorityField, timesliceField;
+    private static final int REPLAY_INTERVAL = 50; // 回放计时器的间隔 (毫秒)
+    private JTextField nameField, arrivalField, burstField, priorityField, timesliceField, speedField;
     private JComboBox<String> algorithmComboBox;
     private JTable jobTable, resultTable;
-    private DefaultTableModel jobTableModel, resultTableModel;
-    private JButton addButton, clearButton, runButton, resetButton;
+    private JobTableModel jobTableModel;
+    private ResultTableModel resultTableModel;
+    private JButton addButton, clearButton, generateButton, runButton, resetButton;
+    private JLabel statusLabel;
     private Timer timer;
     private List<Job> jobs = new ArrayList<>();
-    private List<Job> readyQueue = new ArrayList<>();
-    private Job currentJob;
-    private int currentTime;
-    private int timeSlice;
+    private List<Job> finishedJobs = new ArrayList<>();
+    private SchedulerEngine engine;
+    private double replayTime;   // 回放到的模拟时间
+    private int replaySpeed;     // 每秒回放的时间单位, 0 表示直接显示结果
+    private int nextSlice;
     private boolean isRunning = false;
+    private long nextSeed = 1; // 随机生成的作业每次运行都相同
 
     public SchedulerSimulation() {
         setTitle("作业调度模拟程序");
@@ -55,15 +41,18 @@ public class SchedulerSimulation extends JFrame {
         burstField = new JTextField(5);
         priorityField = new JTextField(5);
         timesliceField = new JTextField(5);
-        algorithmComboBox = new JComboBox<>(new String[]{"FCFS", "SJF", "HRN", "RR", "Static Priority"});
+        speedField = new JTextField("1", 5);
+        statusLabel = new JLabel(" ");
+        algorithmComboBox = new JComboBox<>(SchedulingPolicy.NAMES);
         addButton = new JButton("添加进程");
         clearButton = new JButton("清空输入");
+        generateButton = new JButton("随机生成");
         runButton = new JButton("运行调度");
         resetButton = new JButton("重置队列");
 
-        jobTableModel = new DefaultTableModel(new Object[]{"进程名", "到达时间", "服务时间", "优先级"}, 0);
+        jobTableModel = new JobTableModel();
         jobTable = new JTable(jobTableModel);
-        resultTableModel = new DefaultTableModel(new Object[]{"进程名", "开始时间", "完成时间", "周转时间", "带权周转时间"}, 0);
+        resultTableModel = new ResultTableModel();
         resultTable = new JTable(resultTableModel);
 
         // 布局设置
@@ -79,12 +68,15 @@ public class SchedulerSimulation extends JFrame {
         jobInputPanel.add(priorityField);
         jobInputPanel.add(addButton);
         jobInputPanel.add(clearButton);
+        jobInputPanel.add(generateButton);
 
         JPanel controlPanel = new JPanel();
         controlPanel.add(new JLabel("时间片:"));
         controlPanel.add(timesliceField);
         controlPanel.add(new JLabel("调度算法:"));
         controlPanel.add(algorithmComboBox);
+        controlPanel.add(new JLabel("回放速度:"));
+        controlPanel.add(speedField);
         controlPanel.add(runButton);
         controlPanel.add(resetButton);
 
@@ -97,6 +89,7 @@ public class SchedulerSimulation extends JFrame {
 
         add(inputPanel, BorderLayout.NORTH);
         add(tablePanel, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
 
         // 事件监听器
         addButton.addActionListener(new ActionListener() {
@@ -113,6 +106,13 @@ public class SchedulerSimulation extends JFrame {
             }
         });
 
+        generateButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                generateJobs();
+            }
+        });
+
         runButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -127,11 +127,11 @@ public class SchedulerSimulation extends JFrame {
             }
         });
 
-        // 初始化计时器
-        timer = new Timer(1000, new ActionListener() {
+        // 初始化回放计时器
+        timer = new Timer(REPLAY_INTERVAL, new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                updateTimer();
+                updateReplay();
             }
         });
 
@@ -215,10 +215,21 @@ public class SchedulerSimulation extends JFrame {
 
         Job job = new Job(name, arrivalTime, burstTime, priority);
         jobs.add(job);
-        jobTableModel.addRow(new Object[]{name, arrivalTime, burstTime, priority});
+        jobTableModel.fireTableRowsInserted(jobs.size() - 1, jobs.size() - 1);
         clearInputs();
     }
 
+    // 按种子生成 10 个作业：到达间隔 0..3，服务时间 1..10，优先级 1..5
+    private void generateJobs() {
+        WorkloadGenerator.Arrivals arrivals = new WorkloadGenerator(nextSeed++).arrivals(
+                WorkloadGenerator.Distribution.uniform(0, 3), WorkloadGenerator.Distribution.uniform(1, 10), 5);
+        int first = jobs.size();
+        for (int i = 0; i < 10 && arrivals.next(); i++) {
+            jobs.add(new Job("J" + (jobs.size() + 1), arrivals.arrivalTime, arrivals.burstTime, arrivals.priority));
+        }
+        jobTableModel.fireTableRowsInserted(first, jobs.size() - 1);
+    }
+
     private void clearInputs() {
         nameField.setText("");
         arrivalField.setText("");
@@ -226,86 +237,74 @@ public class SchedulerSimulation extends JFrame {
         priorityField.setText("");
     }
 
+    // 调度由事件驱动的引擎一次算完, 然后按回放速度逐步显示完成的作业
     private void startScheduling() {
         if (isRunning) return;
 
         String selectedAlgorithm = (String) algorithmComboBox.getSelectedItem();
-        if (selectedAlgorithm.equals("RR")) {
-            timeSlice = Integer.parseInt(timesliceField.getText());
+        try {
+            // RR 和 MLFQ 需要时间片 (MLFQ 第一级的时间片, 每降一级翻倍)
+            boolean sliced = selectedAlgorithm.equals("RR") || selectedAlgorithm.equals("MLFQ");
+            int timeSlice = sliced ? Integer.parseInt(timesliceField.getText().trim()) : 0;
+            replaySpeed = Integer.parseInt(speedField.getText().trim());
+            engine = new SchedulerEngine(SchedulingPolicy.of(selectedAlgorithm, timeSlice));
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText("请输入有效的时间片和回放速度");
+            return;
         }
+        engine.setRecordSlices(true);
+        engine.run(jobs);
 
-        currentTime = 0;
-        readyQueue.clear();
-        readyQueue.addAll(jobs);
+        finishedJobs.clear();
+        resultTableModel.fireTableDataChanged();
+        replayTime = 0;
+        nextSlice = 0;
         isRunning = true;
-        timer.start();
+        if (replaySpeed <= 0) {
+            replayTime = engine.makespan();
+            updateReplay();
+        } else {
+            timer.start();
+        }
     }
 
-    private void updateTimer() {
-        currentTime++;
-        if (currentJob != null) {
-            currentJob.remainingTime--;
-            if (currentJob.remainingTime == 0) {
-                currentJob.finishTime = currentTime;
-                currentJob.turnaroundTime = currentJob.finishTime - currentJob.arrivalTime;
-                currentJob.weightedTurnaroundTime = (double) currentJob.turnaroundTime / currentJob.burstTime;
-                resultTableModel.addRow(new Object[]{currentJob.name, currentJob.startTime, currentJob.finishTime, currentJob.turnaroundTime, currentJob.weightedTurnaroundTime});
-                readyQueue.remove(currentJob);
-                currentJob = null;
-            }
+    private void updateReplay() {
+        if (timer.isRunning()) {
+            replayTime = Math.min(replayTime + replaySpeed * REPLAY_INTERVAL / 1000.0, engine.makespan());
         }
-        if (currentJob == null && !readyQueue.isEmpty()) {
-            selectNextJob();
+        List<Job> finished = engine.finished();
+        int first = finishedJobs.size();
+        while (finishedJobs.size() < finished.size() && finished.get(finishedJobs.size()).finishTime <= replayTime) {
+            finishedJobs.add(finished.get(finishedJobs.size()));
         }
-        if (readyQueue.isEmpty() && currentJob == null) {
-            timer.stop();
-            isRunning = false;
+        if (finishedJobs.size() > first) {
+            resultTableModel.fireTableRowsInserted(first, finishedJobs.size() - 1);
         }
-    }
-
-    private void selectNextJob() {
-        String selectedAlgorithm = (String) algorithmComboBox.getSelectedItem();
-        switch (selectedAlgorithm) {
-            case "FCFS":
-                readyQueue.sort(Comparator.comparingInt(p -> p.arrivalTime));
-                break;
-            case "SJF":
-                readyQueue.sort(Comparator.comparingInt(p -> p.burstTime));
-                break;
-            case "HRN":
-                for (Job job : readyQueue) {
-                    job.weightedTurnaroundTime = 1 + (double) (currentTime - job.arrivalTime) / job.burstTime;
-                }
-                readyQueue.sort((p1, p2) -> Double.compare(p2.weightedTurnaroundTime, p1.weightedTurnaroundTime));
-                break;
-            case "Static Priority":
-                readyQueue.sort(Comparator.comparingInt(p -> p.priority));
-                break;
-            case "RR":
-                // RR does not need to sort the ready queue
-                break;
+        List<SchedulerEngine.Slice> slices = engine.slices();
+        while (nextSlice < slices.size() && slices.get(nextSlice).end <= replayTime) {
+            nextSlice++;
         }
-        if (!readyQueue.isEmpty()) {
-            currentJob = readyQueue.get(0);
-            currentJob.startTime = currentTime;
-            if (selectedAlgorithm.equals("RR")) {
-                readyQueue.remove(0);
-                readyQueue.add(currentJob);
-            }
+        String running = nextSlice < slices.size() && slices.get(nextSlice).start <= replayTime
+                ? slices.get(nextSlice).job.name : "空闲";
+        statusLabel.setText(String.format("时间: %d   当前作业: %s   已完成: %d/%d",
+                (int) replayTime, running, finishedJobs.size(), finished.size()));
+        if (finishedJobs.size() == finished.size()) {
+            timer.stop();
+            isRunning = false;
         }
     }
 
     private void resetQueues() {
         jobs.clear();
-        readyQueue.clear();
-        currentJob = null;
-        currentTime = 0;
+        engine = null;
         isRunning = false;
         timer.stop();
-        jobTableModel.setRowCount(0);
-        resultTableModel.setRowCount(0);
+        finishedJobs.clear();
+        jobTableModel.fireTableDataChanged();
+        resultTableModel.fireTableDataChanged();
         algorithmComboBox.setSelectedIndex(0);
         timesliceField.setText("");
+        statusLabel.setText(" ");
     }
 
     private void checkInputs() {
@@ -316,6 +315,77 @@ public class SchedulerSimulation extends JFrame {
         addButton.setEnabled(enableAddButton);
     }
 
+    // 表格模型直接读取作业列表, 每次只通知新增的行
+    private class JobTableModel extends AbstractTableModel {
+        private final String[] columns = {"进程名", "到达时间", "服务时间", "优先级"};
+
+        @Override
+        public int getRowCount() {
+            return jobs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Job job = jobs.get(row);
+            switch (column) {
+                case 0:
+                    return job.name;
+                case 1:
+                    return job.arrivalTime;
+                case 2:
+                    return job.burstTime;
+                default:
+                    return job.priority;
+            }
+        }
+    }
+
+    private class ResultTableModel extends AbstractTableModel {
+        private final String[] columns = {"进程名", "开始时间", "完成时间", "周转时间", "带权周转时间"};
+
+        @Override
+        public int getRowCount() {
+            return finishedJobs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Job job = finishedJobs.get(row);
+            switch (column) {
+                case 0:
+                    return job.name;
+                case 1:
+                    return job.startTime;
+                case 2:
+                    return job.finishTime;
+                case 3:
+                    return job.turnaroundTime;
+                default:
+                    return job.weightedTurnaroundTime;
+            }
+        }
+    }
+
     public static void main(String[] args) {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
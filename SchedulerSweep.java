@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+
+// Parameter sweep over the tunable policies: RR for every quantum, MLFQ for every top-level quantum
+// and level count, and preemptive priority for every aging interval, all on the same jobs and in
+// parallel on a fork-join pool. The jobs are only read; since the engine keeps its bookkeeping in the
+// jobs themselves, each pool thread makes one working copy and reuses it for every configuration it
+// runs, so the workload is copied once per thread rather than once per configuration. The copies
+// belong to one sweep and are dropped with it, so a later sweep always sees the jobs as they are then.
+//
+// Ranges are lists and inclusive spans, e.g. 1-8 or 1,2,4,8,16 or 1-4,8,16.
+//
+// Usage: SchedulerSweep <jobs.csv|jobCount> [quanta] [levels] [agingIntervals] [boostPeriod] [seed] [results.csv]
+public class SchedulerSweep {
+    static class Result {
+        final String policy;
+        final int quantum;
+        final int levels;
+        final int agingInterval;
+        double turnaround;
+        double waiting;
+        double response;
+        double weighted;
+        int makespan;
+
+        Result(String policy, int quantum, int levels, int agingInterval) {
+            this.policy = policy;
+            this.quantum = quantum;
+            this.levels = levels;
+            this.agingInterval = agingInterval;
+        }
+
+        String setting() {
+            switch (policy) {
+                case "RR":
+                    return "quantum " + quantum;
+                case "MLFQ":
+                    return "quantum " + quantum + ", " + levels + " levels";
+                default:
+                    return "aging " + agingInterval;
+            }
+        }
+    }
+
+    private static class RunTask extends RecursiveTask<Result> {
+        private final List<Job> jobs;
+        private final Map<Thread, List<Job>> workingCopies; // Each pool thread's copy of jobs for this sweep
+        private final Result result;
+        private final int boostPeriod;
+
+        RunTask(List<Job> jobs, Map<Thread, List<Job>> workingCopies, Result result, int boostPeriod) {
+            this.jobs = jobs;
+            this.workingCopies = workingCopies;
+            this.result = result;
+            this.boostPeriod = boostPeriod;
+        }
+
+        @Override
+        protected Result compute() {
+            List<Job> copy = workingCopies.computeIfAbsent(Thread.currentThread(), thread -> {
+                List<Job> working = new ArrayList<>(jobs.size());
+                for (Job job : jobs) {
+                    working.add(new Job(job));
+                }
+                return working;
+            });
+            SchedulerEngine engine = new SchedulerEngine(SchedulingPolicy.of(result.policy, result.quantum,
+                    result.levels, result.agingInterval, boostPeriod));
+            engine.run(copy);
+            for (Job job : copy) {
+                result.turnaround += job.turnaroundTime;
+                result.waiting += job.turnaroundTime - job.burstTime;
+                result.response += job.startTime - job.arrivalTime;
+                result.weighted += job.weightedTurnaroundTime;
+            }
+            int count = copy.size();
+            result.turnaround /= count;
+            result.waiting /= count;
+            result.response /= count;
+            result.weighted /= count;
+            result.makespan = engine.makespan();
+            return result;
+        }
+    }
+
+    // Every configuration: RR by quantum, then MLFQ by quantum and level count, then priority by aging
+    public static List<Result> sweep(List<Job> jobs, int[] quanta, int[] levels, int[] agingIntervals, int boostPeriod,
+                                     ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<List<Result>>() {
+            @Override
+            protected List<Result> compute() {
+                Map<Thread, List<Job>> copies = new ConcurrentHashMap<>();
+                List<RunTask> tasks = new ArrayList<>();
+                for (int quantum : quanta) {
+                    tasks.add(new RunTask(jobs, copies, new Result("RR", quantum, 0, 0), boostPeriod));
+                }
+                for (int quantum : quanta) {
+                    for (int levelCount : levels) {
+                        tasks.add(new RunTask(jobs, copies, new Result("MLFQ", quantum, levelCount, 0), boostPeriod));
+                    }
+                }
+                for (int agingInterval : agingIntervals) {
+                    tasks.add(new RunTask(jobs, copies, new Result("Preemptive Priority", 1, 0, agingInterval), boostPeriod));
+                }
+                ForkJoinTask.invokeAll(tasks);
+                List<Result> results = new ArrayList<>(tasks.size());
+                for (RunTask task : tasks) {
+                    results.add(task.join());
+                }
+                return results;
+            }
+        });
+    }
+
+    static int[] range(String text) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : text.split(",")) {
+            int dash = part.indexOf('-', 1);
+            if (dash < 0) {
+                values.add(Integer.parseInt(part.trim()));
+                continue;
+            }
+            int from = Integer.parseInt(part.substring(0, dash).trim());
+            int to = Integer.parseInt(part.substring(dash + 1).trim());
+            for (int value = from; value <= to; value++) {
+                values.add(value);
+            }
+        }
+        int[] range = new int[values.size()];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = values.get(i);
+        }
+        return range;
+    }
+
+    public static void report(List<Result> results, int[] quanta, int[] levels) {
+        System.out.printf("%-20s %-24s %12s %12s %12s %10s%n", "policy", "setting", "turnaround", "waiting", "response", "weighted");
+        for (Result result : results) {
+            System.out.printf("%-20s %-24s %12.2f %12.2f %12.2f %10.3f%n", result.policy, result.setting(),
+                    result.turnaround, result.waiting, result.response, result.weighted);
+        }
+
+        heatmap(results, quanta, levels, "turnaround", result -> result.turnaround);
+        heatmap(results, quanta, levels, "response", result -> result.response);
+
+        System.out.println();
+        best(results, "turnaround", result -> result.turnaround);
+        best(results, "waiting", result -> result.waiting);
+        best(results, "response", result -> result.response);
+    }
+
+    // One MLFQ average with quanta down the side and level counts across
+    private static void heatmap(List<Result> results, int[] quanta, int[] levels, String metric,
+                                ToDoubleFunction<Result> value) {
+        System.out.printf("%nMLFQ %s%n%8s", metric, "quantum");
+        for (int levelCount : levels) {
+            System.out.printf(" %10s", levelCount + " lvl");
+        }
+        System.out.println();
+        int mlfq = quanta.length;
+        for (int quantum : quanta) {
+            System.out.printf("%8d", quantum);
+            for (int i = 0; i < levels.length; i++) {
+                System.out.printf(" %10.2f", value.applyAsDouble(results.get(mlfq++)));
+            }
+            System.out.println();
+        }
+    }
+
+    private static void best(List<Result> results, String metric, ToDoubleFunction<Result> value) {
+        for (String policy : new String[]{"RR", "MLFQ", "Preemptive Priority"}) {
+            Result best = null;
+            for (Result result : results) {
+                if (result.policy.equals(policy) && (best == null || value.applyAsDouble(result) < value.applyAsDouble(best))) {
+                    best = result;
+                }
+            }
+            if (best != null) {
+                System.out.printf("Lowest %-10s %-20s %-24s %.2f%n", metric, policy, best.setting(), value.applyAsDouble(best));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SchedulerSweep <jobs.csv|jobCount> [quanta] [levels] [agingIntervals] [boostPeriod] [seed] [results.csv]");
+            System.exit(2);
+        }
+        int[] quanta = range(args.length > 1 ? args[1] : "1-16");
+        int[] levels = range(args.length > 2 ? args[2] : "1-6");
+        int[] agingIntervals = range(args.length > 3 ? args[3] : "0,1,2,5,10,20,50,100");
+        int boostPeriod = args.length > 4 ? Integer.parseInt(args[4]) : SchedulingPolicy.DEFAULT_BOOST_PERIOD;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+        List<Job> jobs = args[0].matches("\\d+")
+                ? SchedulerBatch.generate(Integer.parseInt(args[0]), seed) : SchedulerBatch.read(Paths.get(args[0]));
+        if (jobs.isEmpty()) {
+            System.err.println("No jobs to schedule");
+            System.exit(1);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool();
+        long begin = System.nanoTime();
+        List<Result> results = sweep(jobs, quanta, levels, agingIntervals, boostPeriod, pool);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%,d jobs x %d configurations on %d threads in %.2f s%n%n", jobs.size(), results.size(),
+                pool.getParallelism(), seconds);
+        report(results, quanta, levels);
+        pool.shutdown();
+
+        if (args.length > 6) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[6])))) {
+                out.println("policy,quantum,levels,agingInterval,turnaround,waiting,response,weighted,makespan");
+                for (Result result : results) {
+                    out.printf("%s,%d,%d,%d,%.4f,%.4f,%.4f,%.4f,%d%n", result.policy, result.quantum, result.levels,
+                            result.agingInterval, result.turnaround, result.waiting, result.response, result.weighted,
+                            result.makespan);
+                }
+            }
+        }
+    }
+}
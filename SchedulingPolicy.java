@@ -0,0 +1,591 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+// How the engine chooses among ready jobs. The engine hands a job to add when it arrives or is
+// preempted and to expired when its quantum runs out, asks next for a job whenever the CPU is free,
+// and lets the job run for quantum(job) before taking it back. After every instant at which anything
+// happened it asks preempts whether the running job should give way, and wakeUp when it next needs to
+// ask even if nothing else happens. Among equally good jobs, the one that became ready first should
+// win, so that every run is deterministic.
+public interface SchedulingPolicy {
+    // Names the front ends offer, in menu order
+    String[] NAMES = {"FCFS", "SJF", "HRN", "RR", "Static Priority", "SRTF", "Preemptive Priority", "MLFQ"};
+    int DEFAULT_LEVELS = 3;            // MLFQ levels
+    int DEFAULT_AGING_INTERVAL = 10;   // Time units of waiting that raise a job one priority step
+    int DEFAULT_BOOST_PERIOD = 200;    // Time units between MLFQ boosts
+
+    static SchedulingPolicy of(String name, int timeSlice) {
+        return of(name, timeSlice, DEFAULT_LEVELS, DEFAULT_AGING_INTERVAL, DEFAULT_BOOST_PERIOD);
+    }
+
+    // timeSlice is RR's quantum and the quantum of MLFQ's top level
+    static SchedulingPolicy of(String name, int timeSlice, int levels, int agingInterval, int boostPeriod) {
+        switch (name) {
+            case "FCFS":
+                return new FifoPolicy(name, Integer.MAX_VALUE);
+            case "SJF":
+                return new KeyedHeapPolicy(name, job -> job.burstTime);
+            case "HRN":
+                return new HrnPolicy();
+            case "RR":
+                if (timeSlice <= 0) {
+                    throw new IllegalArgumentException("RR needs a positive time slice");
+                }
+                return new FifoPolicy(name, timeSlice);
+            case "Static Priority":
+                return new KeyedHeapPolicy(name, job -> job.priority);
+            case "SRTF":
+                return new ShortestRemainingTimePolicy();
+            case "Preemptive Priority":
+                if (agingInterval < 0) {
+                    throw new IllegalArgumentException("The aging interval cannot be negative");
+                }
+                return new AgingPriorityPolicy(agingInterval);
+            case "MLFQ":
+                return new FeedbackQueuePolicy(levels, timeSlice, boostPeriod);
+            default:
+                throw new IllegalArgumentException("Unknown scheduling policy " + name);
+        }
+    }
+
+    String name();
+
+    void add(Job job, int now);
+
+    // Removes and returns the job to run next; only called while the policy is not empty
+    Job next(int now);
+
+    boolean isEmpty();
+
+    void clear();
+
+    // A job that used up its quantum; policies that treat that differently from preemption override this
+    default void expired(Job job, int now) {
+        add(job, now);
+    }
+
+    // CPU time a dispatched job gets before it is queued again; Integer.MAX_VALUE runs it to completion
+    default int quantum(Job job) {
+        return Integer.MAX_VALUE;
+    }
+
+    // Whether the running job, with remaining units still to run, should give way to a ready job now;
+    // only asked while the policy is not empty
+    default boolean preempts(Job running, int remaining, int now) {
+        return false;
+    }
+
+    // How badly the running job, with remaining units still to run, holds its core: where several cores
+    // share one policy, the core with the largest rank is the one a ready job should take
+    default long rank(Job running, int remaining, int now) {
+        return 0;
+    }
+
+    // The next instant after now at which preempts could change its answer without any job arriving,
+    // finishing or expiring, or Integer.MAX_VALUE
+    default int wakeUp(Job running, int remaining, int now) {
+        return Integer.MAX_VALUE;
+    }
+}
+
+// FCFS and RR: jobs are served in the order they became ready. RR takes the CPU back after every
+// quantum and queues the job again behind the others.
+class FifoPolicy implements SchedulingPolicy {
+    private final String name;
+    private final int quantum;
+    private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+
+    FifoPolicy(String name, int quantum) {
+        this.name = name;
+        this.quantum = quantum;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        jobs.addLast(job);
+    }
+
+    @Override
+    public Job next(int now) {
+        return jobs.pollFirst();
+    }
+
+    @Override
+    public int quantum(Job job) {
+        return quantum;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return jobs.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        jobs.clear();
+    }
+}
+
+// Binary min-heap of jobs on a long key, then on the order they were added, so equal keys come out
+// first in, first out. Keys and order sit in primitive arrays beside the jobs.
+class JobHeap {
+    private Job[] jobs = new Job[16];
+    private long[] keys = new long[16];
+    private long[] sequence = new long[16];
+    private int size;
+    private long added;
+
+    void add(Job job, long key) {
+        if (size == jobs.length) {
+            jobs = Arrays.copyOf(jobs, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            sequence = Arrays.copyOf(sequence, size * 2);
+        }
+        long order = added++;
+        int i = size++;
+        while (i > 0 && before(key, order, (i - 1) / 2)) {
+            move((i - 1) / 2, i);
+            i = (i - 1) / 2;
+        }
+        set(i, job, key, order);
+    }
+
+    Job poll() {
+        Job first = jobs[0];
+        size--;
+        Job last = jobs[size];
+        long lastKey = keys[size];
+        long lastOrder = sequence[size];
+        jobs[size] = null;
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && before(keys[child + 1], sequence[child + 1], child)) {
+                child++;
+            }
+            if (!before(keys[child], sequence[child], lastKey, lastOrder)) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        if (size > 0) {
+            set(i, last, lastKey, lastOrder);
+        }
+        return first;
+    }
+
+    // Key of the job poll would return; only valid while the heap is not empty
+    long peekKey() {
+        return keys[0];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        Arrays.fill(jobs, 0, size, null);
+        size = 0;
+    }
+
+    private boolean before(long key, long order, int slot) {
+        return before(key, order, keys[slot], sequence[slot]);
+    }
+
+    private static boolean before(long key, long order, long otherKey, long otherOrder) {
+        return key < otherKey || key == otherKey && order < otherOrder;
+    }
+
+    private void move(int from, int to) {
+        set(to, jobs[from], keys[from], sequence[from]);
+    }
+
+    private void set(int slot, Job job, long key, long order) {
+        jobs[slot] = job;
+        keys[slot] = key;
+        sequence[slot] = order;
+    }
+}
+
+// SJF and Static Priority: the ready job with the smallest fixed key runs to completion
+class KeyedHeapPolicy implements SchedulingPolicy {
+    private final String name;
+    private final ToIntFunction<Job> key;
+    private final JobHeap ready = new JobHeap();
+
+    KeyedHeapPolicy(String name, ToIntFunction<Job> key) {
+        this.name = name;
+        this.key = key;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        ready.add(job, key.applyAsInt(job));
+    }
+
+    @Override
+    public Job next(int now) {
+        return ready.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ready.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        ready.clear();
+    }
+}
+
+// Shortest Remaining Time First: SJF on the time each job still needs, preempting the running job as
+// soon as a ready one needs strictly less. Ready jobs do not progress, so their keys never change.
+class ShortestRemainingTimePolicy implements SchedulingPolicy {
+    private final JobHeap ready = new JobHeap();
+
+    @Override
+    public String name() {
+        return "SRTF";
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        ready.add(job, job.remainingTime);
+    }
+
+    @Override
+    public Job next(int now) {
+        return ready.poll();
+    }
+
+    @Override
+    public boolean preempts(Job running, int remaining, int now) {
+        return ready.peekKey() < remaining;
+    }
+
+    @Override
+    public long rank(Job running, int remaining, int now) {
+        return remaining;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ready.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        ready.clear();
+    }
+}
+
+// Preemptive priority (smaller number first) with aging: a job waiting since readyAt counts as
+// priority - (now - readyAt) / agingInterval, and gets its own priority back once it runs. Between
+// two waiting jobs that comparison is the same at every instant as comparing
+// priority * agingInterval + readyAt, so the heap holds that fixed key and never needs a decrease-key.
+// The running job is overtaken once the best waiting job is a whole priority level ahead of it, at the
+// first instant its key is at most running.priority * agingInterval + now - agingInterval, which the
+// engine is woken for. Demanding a whole level rather than any lead keeps two jobs of equal priority
+// from swapping at every time unit; they alternate every agingInterval instead. An interval of 0 turns
+// aging off.
+class AgingPriorityPolicy implements SchedulingPolicy {
+    private final int agingInterval;
+    private final JobHeap ready = new JobHeap();
+
+    AgingPriorityPolicy(int agingInterval) {
+        this.agingInterval = agingInterval;
+    }
+
+    @Override
+    public String name() {
+        return "Preemptive Priority";
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        ready.add(job, agingInterval == 0 ? job.priority : (long) job.priority * agingInterval + now);
+    }
+
+    @Override
+    public Job next(int now) {
+        return ready.poll();
+    }
+
+    @Override
+    public boolean preempts(Job running, int remaining, int now) {
+        long key = rank(running, remaining, now);
+        return agingInterval == 0 ? ready.peekKey() < key : ready.peekKey() <= key - agingInterval;
+    }
+
+    @Override
+    public long rank(Job running, int remaining, int now) {
+        return agingInterval == 0 ? running.priority : (long) running.priority * agingInterval + now;
+    }
+
+    @Override
+    public int wakeUp(Job running, int remaining, int now) {
+        if (agingInterval == 0 || ready.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        long overtaken = ready.peekKey() - (long) running.priority * agingInterval + agingInterval;
+        return overtaken > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(overtaken, now + 1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ready.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        ready.clear();
+    }
+}
+
+// Multilevel feedback queue: one FIFO per level, level i granting baseQuantum * 2^i. New jobs start at
+// level 0; a job that uses its whole quantum drops a level, one preempted early keeps its level, and a
+// job is preempted whenever a higher level has work. Every boostPeriod time units all jobs return to
+// level 0, queued ones in level order. Boosts are applied lazily at the next call, which sees the same
+// state as boosting on time since nothing is decided in between; the running job learns of a boost
+// through its dispatch time. A period of 0 turns boosting off.
+class FeedbackQueuePolicy implements SchedulingPolicy {
+    private final int baseQuantum;
+    private final int boostPeriod;
+    private final List<ArrayDeque<Job>> levels;
+    private int size;
+    private long nextBoost;
+    private long lastBoost;
+
+    FeedbackQueuePolicy(int levelCount, int baseQuantum, int boostPeriod) {
+        if (levelCount < 1 || levelCount > 30 || baseQuantum <= 0 || boostPeriod < 0) {
+            throw new IllegalArgumentException("MLFQ needs 1-30 levels, a positive time slice and a boost period of 0 or more");
+        }
+        this.baseQuantum = baseQuantum;
+        this.boostPeriod = boostPeriod;
+        levels = new ArrayList<>(levelCount);
+        for (int i = 0; i < levelCount; i++) {
+            levels.add(new ArrayDeque<>());
+        }
+        clear();
+    }
+
+    @Override
+    public String name() {
+        return "MLFQ";
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        boost(now);
+        boosted(job);
+        levels.get(job.level).addLast(job);
+        size++;
+    }
+
+    @Override
+    public void expired(Job job, int now) {
+        boost(now);
+        if (!boosted(job)) {
+            job.level = Math.min(job.level + 1, levels.size() - 1);
+        }
+        levels.get(job.level).addLast(job);
+        size++;
+    }
+
+    @Override
+    public Job next(int now) {
+        boost(now);
+        size--;
+        return levels.get(highestLevel()).pollFirst();
+    }
+
+    @Override
+    public boolean preempts(Job running, int remaining, int now) {
+        boost(now);
+        boosted(running);
+        return highestLevel() < running.level;
+    }
+
+    @Override
+    public long rank(Job running, int remaining, int now) {
+        boost(now);
+        boosted(running);
+        return running.level;
+    }
+
+    @Override
+    public int quantum(Job job) {
+        return (int) Math.min((long) baseQuantum << job.level, Integer.MAX_VALUE);
+    }
+
+    private int highestLevel() {
+        int level = 0;
+        while (levels.get(level).isEmpty()) {
+            level++;
+        }
+        return level;
+    }
+
+    private void boost(int now) {
+        if (boostPeriod == 0 || now < nextBoost) {
+            return;
+        }
+        lastBoost = now - (now - nextBoost) % boostPeriod;
+        nextBoost = lastBoost + boostPeriod;
+        for (int level = 1; level < levels.size(); level++) {
+            for (Job job : levels.get(level)) {
+                job.level = 0;
+                levels.get(0).addLast(job);
+            }
+            levels.get(level).clear();
+        }
+    }
+
+    // Moves a job that was on the CPU during a boost back to level 0, where its quantum does not count
+    // against it
+    private boolean boosted(Job job) {
+        if (boostPeriod > 0 && job.dispatchTime < lastBoost) {
+            job.level = 0;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (ArrayDeque<Job> level : levels) {
+            level.clear();
+        }
+        size = 0;
+        nextBoost = boostPeriod;
+        lastBoost = 0;
+    }
+}
+
+// HRN: the response ratio 1 + waited / burst of every job grows with time, at a rate set by its burst,
+// so no fixed order holds. Among jobs with the same burst, though, the one queued first always has
+// the highest ratio, so each burst length keeps a FIFO and selection compares only the heads of those
+// FIFOs: O(distinct burst lengths queued) per pick instead of O(jobs queued).
+class HrnPolicy implements SchedulingPolicy {
+    // FIFO ring of the queued jobs with one burst length, with the queueing order of each
+    private static class Group {
+        final int burst;
+        Job[] jobs = new Job[4];
+        long[] sequence = new long[4];
+        int head;
+        int count;
+        int slot; // Index in active while the group has jobs
+
+        Group(int burst) {
+            this.burst = burst;
+        }
+
+        void addLast(Job job, long order) {
+            if (count == jobs.length) {
+                Job[] grownJobs = new Job[count * 2];
+                long[] grownSequence = new long[count * 2];
+                for (int i = 0; i < count; i++) {
+                    grownJobs[i] = jobs[(head + i) % count];
+                    grownSequence[i] = sequence[(head + i) % count];
+                }
+                jobs = grownJobs;
+                sequence = grownSequence;
+                head = 0;
+            }
+            int tail = (head + count++) % jobs.length;
+            jobs[tail] = job;
+            sequence[tail] = order;
+        }
+
+        Job pollFirst() {
+            Job job = jobs[head];
+            jobs[head] = null;
+            head = (head + 1) % jobs.length;
+            count--;
+            return job;
+        }
+    }
+
+    private final Map<Integer, Group> byBurst = new HashMap<>();
+    private final List<Group> active = new ArrayList<>();
+    private long added;
+    private int size;
+
+    @Override
+    public String name() {
+        return "HRN";
+    }
+
+    @Override
+    public void add(Job job, int now) {
+        Group group = byBurst.get(job.burstTime);
+        if (group == null) {
+            group = new Group(job.burstTime);
+            byBurst.put(job.burstTime, group);
+        }
+        if (group.count == 0) {
+            group.slot = active.size();
+            active.add(group);
+        }
+        group.addLast(job, added++);
+        size++;
+    }
+
+    @Override
+    public Job next(int now) {
+        Group best = active.get(0);
+        for (int i = 1; i < active.size(); i++) {
+            Group group = active.get(i);
+            // Response ratios of the two heads compared without dividing, then queueing order
+            long ratio = (long) (now - group.jobs[group.head].arrivalTime) * best.burst;
+            long bestRatio = (long) (now - best.jobs[best.head].arrivalTime) * group.burst;
+            if (ratio > bestRatio || ratio == bestRatio && group.sequence[group.head] < best.sequence[best.head]) {
+                best = group;
+            }
+        }
+        Job job = best.pollFirst();
+        size--;
+        if (best.count == 0) {
+            Group moved = active.remove(active.size() - 1);
+            if (moved != best) {
+                moved.slot = best.slot;
+                active.set(best.slot, moved);
+            }
+        }
+        return job;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        byBurst.clear();
+        active.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.memorymanager;
+
+import java.util.Arrays;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Segregated free lists for small jobs. Sizes are rounded up to a multiple of GRANULE and each class
+// keeps a stack of free objects, so allocation and release are constant time. The stacks are linked
+// through a column indexed by block, so they allocate nothing once the column has grown. When a class
+// runs dry a slab of OBJECTS_PER_SLAB objects is cut from the best fitting free block of the manager.
+class SlabAllocator {
+    static final int GRANULE = 8;
+    static final int CLASS_COUNT = 8; // Classes of 8, 16, ..., 64 units
+    static final int OBJECTS_PER_SLAB = 8;
+
+    private final MemoryManager manager;
+    private final BlockTable blocks;
+    private final int[] heads = new int[CLASS_COUNT + 1];
+    private final int[] tails = new int[CLASS_COUNT + 1];
+    private int[] nextFree = new int[0];
+    private int freeCount;
+
+    SlabAllocator(MemoryManager manager) {
+        this.manager = manager;
+        this.blocks = manager.blocks;
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+    }
+
+    static boolean isSmall(int size) {
+        return size <= GRANULE * CLASS_COUNT;
+    }
+
+    static int classFor(int size) {
+        return Math.max(1, (size + GRANULE - 1) / GRANULE);
+    }
+
+    int allocate(int size) {
+        int sizeClass = classFor(size);
+        if (heads[sizeClass] == NIL && !refill(sizeClass)) {
+            return NIL;
+        }
+        int block = heads[sizeClass];
+        heads[sizeClass] = nextFree[block];
+        if (heads[sizeClass] == NIL) {
+            tails[sizeClass] = NIL;
+        }
+        freeCount--;
+        blocks.free[block] = false;
+        return block;
+    }
+
+    int release(int block) {
+        blocks.free[block] = true;
+        int sizeClass = blocks.slabClass[block];
+        grow(block);
+        nextFree[block] = heads[sizeClass];
+        heads[sizeClass] = block;
+        if (tails[sizeClass] == NIL) {
+            tails[sizeClass] = block;
+        }
+        freeCount++;
+        return block;
+    }
+
+    // Free objects in the order allocate would hand them out, for MemorySnapshot
+    int[] freeObjects() {
+        int[] objects = new int[freeCount];
+        int count = 0;
+        for (int sizeClass = 0; sizeClass <= CLASS_COUNT; sizeClass++) {
+            for (int block = heads[sizeClass]; block != NIL; block = nextFree[block]) {
+                objects[count++] = block;
+            }
+        }
+        return objects;
+    }
+
+    // Puts a free object of a restored snapshot back behind the others of its class
+    void restore(int block) {
+        append(blocks.slabClass[block], block);
+    }
+
+    private void append(int sizeClass, int block) {
+        grow(block);
+        nextFree[block] = NIL;
+        if (tails[sizeClass] != NIL) {
+            nextFree[tails[sizeClass]] = block;
+        } else {
+            heads[sizeClass] = block;
+        }
+        tails[sizeClass] = block;
+        freeCount++;
+    }
+
+    private void grow(int block) {
+        if (block >= nextFree.length) {
+            nextFree = Arrays.copyOf(nextFree, blocks.capacity());
+        }
+    }
+
+    private boolean refill(int sizeClass) {
+        int objectSize = sizeClass * GRANULE;
+        int block = manager.bestFreeBlock(objectSize * OBJECTS_PER_SLAB);
+        if (block == NIL) {
+            block = manager.bestFreeBlock(objectSize); // Settle for a shorter slab
+            if (block == NIL) {
+                return false;
+            }
+        }
+        int count = Math.min(OBJECTS_PER_SLAB, blocks.size[block] / objectSize);
+        manager.split(block, count * objectSize);
+        manager.reserve(block, -1, sizeClass);
+        for (int i = 0; i < count; i++) {
+            manager.resize(block, objectSize);
+            append(sizeClass, block);
+            if (i + 1 < count) {
+                int object = blocks.create(blocks.start[block] + objectSize, objectSize, true);
+                blocks.slabClass[object] = (byte) sizeClass;
+                manager.insertAfter(block, object);
+                block = object;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.memorymanager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Runs every strategy over the same workloads on a fork-join pool and reports them side by side:
+// throughput, placement success, external fragmentation and search cost. Each (workload, strategy)
+// pair replays into its own MemoryManager, so runs share nothing but the read-only workload columns.
+// Throughput is measured per run while other runs occupy the remaining cores, and leaves out the
+// fragmentation readings.
+//
+// Usage: StrategyComparison [seeds] [blockCount] [events] [SMALL|WIDE|BIMODAL] [BALANCED|ALLOC_HEAVY] [STRATEGY,...]
+//        StrategyComparison --trace <file> [totalSize] [STRATEGY,...]
+public class StrategyComparison {
+    private static final int SAMPLES = 100;          // Fragmentation readings taken through each replay
+    private static final int WARMUP_EVENTS = 200_000;
+
+    // One allocation workload held as flat columns: the initial free blocks and a sequence of events,
+    // where an event of size FREE releases its id. Nothing in it changes after it is built, so any
+    // number of threads can replay it into their own MemoryManager at once.
+    static final class Workload {
+        static final int FREE = -1;
+
+        final int[] blockStarts;
+        final int[] blockSizes;
+        final int[] eventIds;
+        final int[] eventSizes;
+
+        Workload(int[] blockStarts, int[] blockSizes, int[] eventIds, int[] eventSizes) {
+            this.blockStarts = blockStarts;
+            this.blockSizes = blockSizes;
+            this.eventIds = eventIds;
+            this.eventSizes = eventSizes;
+        }
+
+        int eventCount() {
+            return eventIds.length;
+        }
+
+        void replayBlocks(AllocationTrace.Visitor visitor) {
+            for (int i = 0; i < blockStarts.length; i++) {
+                visitor.block(blockStarts[i], blockSizes[i]);
+            }
+        }
+
+        void replayEvents(AllocationTrace.Visitor visitor, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (eventSizes[i] == FREE) {
+                    visitor.free(eventIds[i]);
+                } else {
+                    visitor.alloc(eventIds[i], eventSizes[i]);
+                }
+            }
+        }
+
+        // PlacementBenchmark's block and request sizes, but with the blocks laid out back to back so that
+        // frees coalesce and fragmentation can recover. Lifetimes follow the mix's load on the pool; a
+        // free whose id never got a block is ignored by TraceReplay.
+        static Workload generate(long seed, int blockCount, int events, PlacementBenchmark.SizeDistribution sizes,
+                                 PlacementBenchmark.Mix mix) {
+            WorkloadGenerator generator = new WorkloadGenerator(seed);
+            Recorder recorder = new Recorder();
+            long poolSize = generator.layout(recorder, blockCount, PlacementBenchmark.BLOCK_SIZES,
+                    WorkloadGenerator.Distribution.uniform(0, 0));
+            generator.replay(recorder, events, sizes.distribution, mix.lifetimes(poolSize, sizes));
+            return recorder.workload();
+        }
+
+        // Loads an AllocationTrace into memory so several strategies can share it
+        static Workload read(Path path) throws IOException {
+            Recorder recorder = new Recorder();
+            AllocationTrace.read(path, recorder);
+            return recorder.workload();
+        }
+
+        private static class Recorder implements AllocationTrace.Visitor {
+            int[] blockStarts = new int[1024];
+            int[] blockSizes = new int[1024];
+            int[] eventIds = new int[1024];
+            int[] eventSizes = new int[1024];
+            int blocks;
+            int events;
+
+            Workload workload() {
+                return new Workload(Arrays.copyOf(blockStarts, blocks), Arrays.copyOf(blockSizes, blocks),
+                        Arrays.copyOf(eventIds, events), Arrays.copyOf(eventSizes, events));
+            }
+
+            @Override
+            public void block(int start, int size) {
+                if (blocks == blockStarts.length) {
+                    blockStarts = Arrays.copyOf(blockStarts, blocks * 2);
+                    blockSizes = Arrays.copyOf(blockSizes, blocks * 2);
+                }
+                blockStarts[blocks] = start;
+                blockSizes[blocks++] = size;
+            }
+
+            @Override
+            public void alloc(int id, int size) {
+                event(id, size);
+            }
+
+            @Override
+            public void free(int id) {
+                event(id, FREE);
+            }
+
+            private void event(int id, int size) {
+                if (events == eventIds.length) {
+                    eventIds = Arrays.copyOf(eventIds, events * 2);
+                    eventSizes = Arrays.copyOf(eventSizes, events * 2);
+                }
+                eventIds[events] = id;
+                eventSizes[events++] = size;
+            }
+        }
+    }
+
+    static class Run {
+        final Workload workload;
+        final FitStrategy strategy;
+        long nanos;
+        long allocations;
+        long failedAllocations;
+        double meanFragmentation;
+        double finalFragmentation;
+        double meanExamined;
+        long p99Nanos;
+
+        Run(Workload workload, FitStrategy strategy) {
+            this.workload = workload;
+            this.strategy = strategy;
+        }
+
+        double eventsPerSecond() {
+            return workload.eventCount() / (nanos / 1e9);
+        }
+    }
+
+    private static class RunTask extends RecursiveTask<Run> {
+        private final Workload workload;
+        private final FitStrategy strategy;
+        private final int totalSize;
+
+        RunTask(Workload workload, FitStrategy strategy, int totalSize) {
+            this.workload = workload;
+            this.strategy = strategy;
+            this.totalSize = totalSize;
+        }
+
+        @Override
+        protected Run compute() {
+            return replay(workload, strategy, totalSize);
+        }
+    }
+
+    public static Run replay(Workload workload, FitStrategy strategy, int totalSize) {
+        MemoryManager manager = new MemoryManager(totalSize);
+        TraceReplay replay = new TraceReplay(manager, strategy);
+        Run run = new Run(workload, strategy);
+        workload.replayBlocks(replay);
+        int events = workload.eventCount();
+        double fragmentation = 0;
+        int samples = 0;
+        long nanos = 0;
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            int from = (int) ((long) events * sample / SAMPLES);
+            int to = (int) ((long) events * (sample + 1) / SAMPLES);
+            if (from == to) {
+                continue;
+            }
+            long begin = System.nanoTime();
+            workload.replayEvents(replay, from, to);
+            nanos += System.nanoTime() - begin;
+            fragmentation += fragmentation(manager);
+            samples++;
+        }
+        run.nanos = Math.max(nanos, 1);
+        run.allocations = replay.allocations;
+        run.failedAllocations = replay.failedAllocations;
+        run.meanFragmentation = samples == 0 ? 0 : fragmentation / samples;
+        run.finalFragmentation = fragmentation(manager);
+        run.meanExamined = manager.stats().meanExamined(strategy);
+        run.p99Nanos = manager.stats().latencyQuantileNanos(strategy, 0.99);
+        return run;
+    }
+
+    // 1 - largest free run / free units, counting the free chunks the buddy and slab allocators hold
+    // (MemoryManager.externalFragmentation sees only the blocks open to the split-based strategies).
+    // Adjacent free blocks count as one run, since the buddy system keeps unmerged buddies apart.
+    static double fragmentation(MemoryManager manager) {
+        BlockTable blocks = manager.blocks;
+        long free = 0;
+        long largest = 0;
+        long run = 0;
+        int end = Integer.MIN_VALUE;
+        for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+            if (!blocks.free[block]) {
+                run = 0;
+                continue;
+            }
+            run = blocks.start[block] == end ? run + blocks.size[block] : blocks.size[block];
+            end = blocks.start[block] + blocks.size[block];
+            free += blocks.size[block];
+            largest = Math.max(largest, run);
+        }
+        return free == 0 ? 0 : 1 - (double) largest / free;
+    }
+
+    // Replays every workload with every strategy in parallel; results come back workload by workload,
+    // strategies in the order given
+    public static List<Run> compare(List<Workload> workloads, FitStrategy[] strategies, int totalSize, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<List<Run>>() {
+            @Override
+            protected List<Run> compute() {
+                List<RunTask> tasks = new ArrayList<>();
+                for (Workload workload : workloads) {
+                    for (FitStrategy strategy : strategies) {
+                        tasks.add(new RunTask(workload, strategy, totalSize));
+                    }
+                }
+                ForkJoinTask.invokeAll(tasks);
+                List<Run> runs = new ArrayList<>(tasks.size());
+                for (RunTask task : tasks) {
+                    runs.add(task.join());
+                }
+                return runs;
+            }
+        });
+    }
+
+    // Builds the seeded workloads in parallel too, since generating millions of events is not free
+    public static List<Workload> generate(int seeds, int blockCount, int events, PlacementBenchmark.SizeDistribution sizes,
+                                          PlacementBenchmark.Mix mix, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<List<Workload>>() {
+            @Override
+            protected List<Workload> compute() {
+                List<RecursiveTask<Workload>> tasks = new ArrayList<>();
+                for (int seed = 1; seed <= seeds; seed++) {
+                    long workloadSeed = seed;
+                    tasks.add(new RecursiveTask<Workload>() {
+                        @Override
+                        protected Workload compute() {
+                            return Workload.generate(workloadSeed, blockCount, events, sizes, mix);
+                        }
+                    });
+                }
+                ForkJoinTask.invokeAll(tasks);
+                List<Workload> workloads = new ArrayList<>(tasks.size());
+                for (RecursiveTask<Workload> task : tasks) {
+                    workloads.add(task.join());
+                }
+                return workloads;
+            }
+        });
+    }
+
+    // One row per strategy, averaged over the workloads
+    public static void report(List<Run> runs, FitStrategy[] strategies) {
+        System.out.printf("%-15s %5s %14s %10s %12s %12s %10s %9s%n",
+                "strategy", "runs", "events/s", "placed %", "mean frag %", "final frag %", "examined", "p99 ns");
+        for (FitStrategy strategy : strategies) {
+            int count = 0;
+            double eventsPerSecond = 0;
+            long allocations = 0;
+            long failed = 0;
+            double meanFragmentation = 0;
+            double finalFragmentation = 0;
+            double examined = 0;
+            long p99 = 0;
+            for (Run run : runs) {
+                if (run.strategy != strategy) {
+                    continue;
+                }
+                count++;
+                eventsPerSecond += run.eventsPerSecond();
+                allocations += run.allocations;
+                failed += run.failedAllocations;
+                meanFragmentation += run.meanFragmentation;
+                finalFragmentation += run.finalFragmentation;
+                examined += run.meanExamined;
+                p99 = Math.max(p99, run.p99Nanos);
+            }
+            if (count == 0) {
+                continue;
+            }
+            System.out.printf("%-15s %5d %,14.0f %10.2f %12.2f %12.2f %10.1f %9d%n",
+                    strategy, count, eventsPerSecond / count,
+                    allocations == 0 ? 100 : 100 * (1 - (double) failed / allocations),
+                    100 * meanFragmentation / count, 100 * finalFragmentation / count, examined / count, p99);
+        }
+    }
+
+    private static FitStrategy[] strategies(String list) {
+        String[] names = list.split(",");
+        FitStrategy[] strategies = new FitStrategy[names.length];
+        for (int i = 0; i < names.length; i++) {
+            strategies[i] = FitStrategy.valueOf(names[i]);
+        }
+        return strategies;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool();
+        FitStrategy[] strategies = FitStrategy.values();
+        List<Workload> workloads;
+        int totalSize;
+        if (args.length > 0 && args[0].equals("--trace")) {
+            if (args.length < 2) {
+                System.err.println("Usage: StrategyComparison --trace <file> [totalSize] [STRATEGY,...]");
+                System.exit(2);
+            }
+            workloads = List.of(Workload.read(Paths.get(args[1])));
+            totalSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+            if (args.length > 3) {
+                strategies = strategies(args[3]);
+            }
+        } else {
+            int seeds = args.length > 0 ? Integer.parseInt(args[0]) : pool.getParallelism();
+            int blockCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+            int events = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+            PlacementBenchmark.SizeDistribution sizes = args.length > 3
+                    ? PlacementBenchmark.SizeDistribution.valueOf(args[3]) : PlacementBenchmark.SizeDistribution.WIDE;
+            PlacementBenchmark.Mix mix = args.length > 4 ? PlacementBenchmark.Mix.valueOf(args[4]) : PlacementBenchmark.Mix.BALANCED;
+            if (args.length > 5) {
+                strategies = strategies(args[5]);
+            }
+            workloads = generate(seeds, blockCount, events, sizes, mix, pool);
+            totalSize = 0;
+        }
+
+        // A short untimed pass per strategy so the first measured runs are not interpreted code
+        Workload warmup = Workload.generate(0, 1000, WARMUP_EVENTS,
+                PlacementBenchmark.SizeDistribution.WIDE, PlacementBenchmark.Mix.BALANCED);
+        compare(List.of(warmup), strategies, 0, pool);
+
+        long begin = System.nanoTime();
+        List<Run> runs = compare(workloads, strategies, totalSize, pool);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long events = 0;
+        for (Run run : runs) {
+            events += run.workload.eventCount();
+        }
+        System.out.printf("%d workloads x %d strategies on %d threads: %,d events in %.2f s (%,.0f events/s overall)%n",
+                workloads.size(), strategies.length, pool.getParallelism(), events, seconds, events / seconds);
+        report(runs, strategies);
+        pool.shutdown();
+    }
+}
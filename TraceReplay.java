@@ -0,0 +1,102 @@
+package com.example.memorymanager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static com.example.memorymanager.BlockTable.NIL;
+
+// Replays an AllocationTrace through one MemoryManager strategy and reports throughput and the
+// final layout. Job ids index a primitive handle array, so live jobs cost four bytes each.
+public class TraceReplay implements AllocationTrace.Visitor {
+    private final MemoryManager manager;
+    private final FitStrategy strategy;
+    private final Job scratch = new Job(0, 0);
+    private int[] blockById = new int[1024];
+    long allocations;
+    long failedAllocations;
+    long frees;
+
+    public TraceReplay(MemoryManager manager, FitStrategy strategy) {
+        this.manager = manager;
+        this.strategy = strategy;
+        Arrays.fill(blockById, NIL);
+    }
+
+    @Override
+    public void block(int start, int size) {
+        manager.addBlock(start, size);
+    }
+
+    @Override
+    public void alloc(int id, int size) {
+        allocations++;
+        scratch.id = id;
+        scratch.size = size;
+        scratch.isAllocated = false;
+        if (!manager.allocate(scratch, strategy)) {
+            failedAllocations++;
+            return;
+        }
+        if (id >= blockById.length) {
+            int length = blockById.length;
+            blockById = Arrays.copyOf(blockById, Math.max(id + 1, length * 2));
+            Arrays.fill(blockById, length, blockById.length, NIL);
+        }
+        blockById[id] = scratch.memoryBlock;
+    }
+
+    @Override
+    public void free(int id) {
+        if (id < blockById.length && blockById[id] != NIL) {
+            manager.release(blockById[id]);
+            blockById[id] = NIL;
+            frees++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplay <trace> [FIRST_FIT|NEXT_FIT|BEST_FIT|WORST_FIT|BUDDY|SEGREGATED_FIT] [totalSize]");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        FitStrategy strategy = args.length > 1 ? FitStrategy.valueOf(args[1]) : FitStrategy.FIRST_FIT;
+        int totalSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        MemoryManager manager = new MemoryManager(totalSize);
+        TraceReplay replay = new TraceReplay(manager, strategy);
+
+        long begin = System.nanoTime();
+        long events = AllocationTrace.read(path, replay);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        System.out.printf("%s: %,d events in %.3f s (%,.0f events/s)%n", strategy, events, seconds, events / seconds);
+        System.out.printf("allocations %,d (failed %,d), frees %,d%n", replay.allocations, replay.failedAllocations, replay.frees);
+        printLayout(manager);
+    }
+
+    static void printLayout(MemoryManager manager) {
+        BlockTable blocks = manager.blocks;
+        long freeUnits = 0;
+        long usedUnits = 0;
+        int freeBlocks = 0;
+        int largestFree = 0;
+        for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+            if (blocks.free[block]) {
+                freeUnits += blocks.size[block];
+                freeBlocks++;
+                largestFree = Math.max(largestFree, blocks.size[block]);
+            } else {
+                usedUnits += blocks.size[block];
+            }
+        }
+        System.out.printf("final layout: %,d blocks, %,d free blocks, %,d units used, %,d units free, largest free %,d%n",
+                blocks.count(), freeBlocks, usedUnits, freeUnits, largestFree);
+        if (blocks.count() <= 50) {
+            for (int block = blocks.first(); block != NIL; block = blocks.next[block]) {
+                System.out.printf("  start %d size %d %s%n", blocks.start[block], blocks.size[block], blocks.free[block] ? "free" : "used");
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.memorymanager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Reproducible synthetic workloads. Everything is drawn from SplittableRandom streams derived from one
+// seed, so the same seed and settings always give the same layout, events and arrivals. Events and
+// arrivals are produced one at a time by cursors that keep only the live allocations, never the
+// stream itself, so runs of any length need memory in proportion to what is live.
+//
+// Usage: WorkloadGenerator <trace> [events] [seed] [blocks] [sizes] [lifetimes]
+//   writes an AllocationTrace, e.g. WorkloadGenerator run.trc 10000000 7 4096 pareto:16:1.2 exp:500
+public class WorkloadGenerator {
+    private static final long LAYOUT_STREAM = 1;
+    private static final long EVENT_STREAM = 2;
+    private static final long ARRIVAL_STREAM = 3;
+
+    public static final class Distribution {
+        enum Kind {UNIFORM, EXPONENTIAL, PARETO, BIMODAL}
+
+        private final Kind kind;
+        private final int min;
+        private final int max;
+        private final double mean;        // EXPONENTIAL
+        private final double alpha;       // PARETO shape
+        private final Distribution large; // BIMODAL: drawn with probability largeFraction, else uniform min..max
+        private final double largeFraction;
+
+        private Distribution(Kind kind, int min, int max, double mean, double alpha, Distribution large, double largeFraction) {
+            this.kind = kind;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.alpha = alpha;
+            this.large = large;
+            this.largeFraction = largeFraction;
+        }
+
+        // min..max inclusive
+        public static Distribution uniform(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("Bad uniform range " + min + ".." + max);
+            }
+            return new Distribution(Kind.UNIFORM, min, max, 0, 0, null, 0);
+        }
+
+        // Rounded exponential with the given mean, so small values are common and large ones rare
+        public static Distribution exponential(double mean) {
+            if (!(mean > 0)) {
+                throw new IllegalArgumentException("Bad exponential mean " + mean);
+            }
+            return new Distribution(Kind.EXPONENTIAL, 0, Integer.MAX_VALUE, mean, 0, null, 0);
+        }
+
+        // Heavy tail starting at min; alpha near 1 gives occasional huge values. Capped at max.
+        public static Distribution pareto(int min, double alpha, int max) {
+            if (min < 1 || !(alpha > 0) || max < min) {
+                throw new IllegalArgumentException("Bad Pareto parameters " + min + ", " + alpha + ", " + max);
+            }
+            return new Distribution(Kind.PARETO, min, max, 0, alpha, null, 0);
+        }
+
+        // Mostly smallMin..smallMax, with largeFraction of the values from largeMin..largeMax
+        public static Distribution bimodal(int smallMin, int smallMax, int largeMin, int largeMax, double largeFraction) {
+            if (largeFraction < 0 || largeFraction > 1) {
+                throw new IllegalArgumentException("Bad bimodal fraction " + largeFraction);
+            }
+            Distribution small = uniform(smallMin, smallMax);
+            return new Distribution(Kind.BIMODAL, small.min, small.max, 0, 0, uniform(largeMin, largeMax), largeFraction);
+        }
+
+        // Parses the forms the command line uses: uniform:MIN:MAX, exp:MEAN, pareto:MIN:ALPHA[:MAX]
+        // and bimodal:SMALLMIN:SMALLMAX:LARGEMIN:LARGEMAX:FRACTION
+        public static Distribution parse(String text) {
+            String[] parts = text.split(":");
+            try {
+                switch (parts[0].toLowerCase()) {
+                    case "uniform":
+                        return uniform(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                    case "exp":
+                    case "exponential":
+                        return exponential(Double.parseDouble(parts[1]));
+                    case "pareto":
+                        return pareto(Integer.parseInt(parts[1]), Double.parseDouble(parts[2]),
+                                parts.length > 3 ? Integer.parseInt(parts[3]) : Integer.MAX_VALUE);
+                    case "bimodal":
+                        return bimodal(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                                Integer.parseInt(parts[4]), Double.parseDouble(parts[5]));
+                    default:
+                        throw new IllegalArgumentException("Unknown distribution " + text);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Bad distribution " + text, e);
+            }
+        }
+
+        public int sample(SplittableRandom random) {
+            switch (kind) {
+                case UNIFORM:
+                    return min + random.nextInt(max - min + 1);
+                case EXPONENTIAL:
+                    return (int) Math.min(Math.round(-mean * Math.log(1 - random.nextDouble())), Integer.MAX_VALUE);
+                case PARETO:
+                    return (int) Math.min(min / Math.pow(1 - random.nextDouble(), 1 / alpha), max);
+                default:
+                    return random.nextDouble() < largeFraction ? large.sample(random) : min + random.nextInt(max - min + 1);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case UNIFORM:
+                    return "uniform:" + min + ":" + max;
+                case EXPONENTIAL:
+                    return "exp:" + mean;
+                case PARETO:
+                    return "pareto:" + min + ":" + alpha + ":" + max;
+                default:
+                    return "bimodal:" + min + ":" + max + ":" + large.min + ":" + large.max + ":" + largeFraction;
+            }
+        }
+    }
+
+    // Alternates allocations and the frees their lifetimes call for. Time advances by one per
+    // allocation; a job allocated at time t with lifetime l is freed before the allocation at t + l.
+    // Lives are kept in a min-heap on death time, so each event costs O(log live).
+    public static final class Events {
+        public static final int ALLOC = 0;
+        public static final int FREE = 1;
+
+        public int kind;
+        public int id;
+        public int size;       // Requested units for ALLOC, the size allocated earlier for FREE
+
+        private final SplittableRandom random;
+        private final Distribution sizes;
+        private final Distribution lifetimes;
+        private long clock;
+        private int nextId;
+        private long[] deaths = new long[64];
+        private int[] ids = new int[64];
+        private int[] heldSizes = new int[64];
+        private int live;
+
+        private Events(SplittableRandom random, Distribution sizes, Distribution lifetimes) {
+            this.random = random;
+            this.sizes = sizes;
+            this.lifetimes = lifetimes;
+        }
+
+        // Moves to the next event; the stream never ends
+        public void next() {
+            if (live > 0 && deaths[0] <= clock) {
+                kind = FREE;
+                id = ids[0];
+                size = heldSizes[0];
+                pop();
+                return;
+            }
+            kind = ALLOC;
+            id = nextId++;
+            size = Math.max(1, sizes.sample(random));
+            push(clock + Math.max(1, lifetimes.sample(random)), id, size);
+            clock++;
+        }
+
+        public int live() {
+            return live;
+        }
+
+        private void push(long death, int id, int size) {
+            if (live == deaths.length) {
+                deaths = Arrays.copyOf(deaths, live * 2);
+                ids = Arrays.copyOf(ids, live * 2);
+                heldSizes = Arrays.copyOf(heldSizes, live * 2);
+            }
+            int i = live++;
+            while (i > 0 && deaths[(i - 1) / 2] > death) {
+                int parent = (i - 1) / 2;
+                move(parent, i);
+                i = parent;
+            }
+            deaths[i] = death;
+            ids[i] = id;
+            heldSizes[i] = size;
+        }
+
+        private void pop() {
+            live--;
+            long death = deaths[live];
+            int id = ids[live];
+            int size = heldSizes[live];
+            int i = 0;
+            while (2 * i + 1 < live) {
+                int child = 2 * i + 1;
+                if (child + 1 < live && deaths[child + 1] < deaths[child]) {
+                    child++;
+                }
+                if (deaths[child] >= death) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            deaths[i] = death;
+            ids[i] = id;
+            heldSizes[i] = size;
+        }
+
+        private void move(int from, int to) {
+            deaths[to] = deaths[from];
+            ids[to] = ids[from];
+            heldSizes[to] = heldSizes[from];
+        }
+    }
+
+    // Jobs for the schedulers in arrival order: gaps between arrivals, burst times and priorities 1..priorities
+    public static final class Arrivals {
+        public int index;
+        public int arrivalTime;
+        public int burstTime;
+        public int priority;
+
+        private final SplittableRandom random;
+        private final Distribution gaps;
+        private final Distribution bursts;
+        private final int priorities;
+        private long time;
+
+        private Arrivals(SplittableRandom random, Distribution gaps, Distribution bursts, int priorities) {
+            this.random = random;
+            this.gaps = gaps;
+            this.bursts = bursts;
+            this.priorities = priorities;
+            index = -1;
+        }
+
+        // Moves to the next job; returns false once arrival times no longer fit in an int
+        public boolean next() {
+            long arrival = index < 0 ? time : time + gaps.sample(random);
+            if (arrival > Integer.MAX_VALUE) {
+                return false;
+            }
+            time = arrival;
+            index++;
+            arrivalTime = (int) arrival;
+            burstTime = Math.max(1, bursts.sample(random));
+            priority = 1 + random.nextInt(priorities);
+            return true;
+        }
+    }
+
+    private final long seed;
+
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    // Lays blockCount free blocks out from address 0 in increasing order, gaps apart, and returns the
+    // address one past the last block. Blocks never overlap.
+    public long layout(AllocationTrace.Visitor visitor, int blockCount, Distribution sizes, Distribution gaps) {
+        SplittableRandom random = stream(LAYOUT_STREAM);
+        long address = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int size = Math.max(1, sizes.sample(random));
+            if (address + size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Layout of " + blockCount + " blocks does not fit in the address space");
+            }
+            visitor.block((int) address, size);
+            address += size + (long) gaps.sample(random);
+        }
+        return address;
+    }
+
+    public Events events(Distribution sizes, Distribution lifetimes) {
+        return new Events(stream(EVENT_STREAM), sizes, lifetimes);
+    }
+
+    public Arrivals arrivals(Distribution gaps, Distribution bursts, int priorities) {
+        return new Arrivals(stream(ARRIVAL_STREAM), gaps, bursts, priorities);
+    }
+
+    // Streams count events to the visitor, e.g. a TraceReplay driving a MemoryManager
+    public void replay(AllocationTrace.Visitor visitor, long count, Distribution sizes, Distribution lifetimes) {
+        Events events = events(sizes, lifetimes);
+        for (long i = 0; i < count; i++) {
+            events.next();
+            if (events.kind == Events.ALLOC) {
+                visitor.alloc(events.id, events.size);
+            } else {
+                visitor.free(events.id);
+            }
+        }
+    }
+
+    private SplittableRandom stream(long stream) {
+        return new SplittableRandom(seed ^ stream * 0x9E3779B97F4A7C15L);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: WorkloadGenerator <trace> [events] [seed] [blocks] [sizes] [lifetimes]");
+            System.exit(2);
+        }
+        long count = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        WorkloadGenerator generator = new WorkloadGenerator(args.length > 2 ? Long.parseLong(args[2]) : 42);
+        int blocks = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        Distribution sizes = args.length > 4 ? Distribution.parse(args[4]) : Distribution.uniform(1, 1000);
+        Distribution lifetimes = args.length > 5 ? Distribution.parse(args[5]) : Distribution.exponential(blocks);
+
+        try (AllocationTrace.Writer writer = new AllocationTrace.Writer(Paths.get(args[0]))) {
+            AllocationTrace.Visitor out = new AllocationTrace.Visitor() {
+                @Override
+                public void block(int start, int size) {
+                    try {
+                        writer.block(start, size);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void alloc(int id, int size) {
+                    try {
+                        writer.alloc(id, size);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void free(int id) {
+                    try {
+                        writer.free(id);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            long end = generator.layout(out, blocks, Distribution.uniform(64, 1087), Distribution.uniform(0, 0));
+            generator.replay(out, count, sizes, lifetimes);
+            System.out.printf("%,d blocks covering %,d units and %,d events written to %s%n", blocks, end, count, args[0]);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
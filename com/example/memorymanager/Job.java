@@ -0,0 +1,14 @@
+package com.example.memorymanager;
+
+class Job {
+    int id;
+    int size;
+    boolean isAllocated;
+    int memoryBlock = BlockTable.NIL; // Handle of the allocated block in the manager's block table
+
+    public Job(int id, int size) {
+        this.id = id;
+        this.size = size;
+        this.isAllocated = false;
+    }
+}